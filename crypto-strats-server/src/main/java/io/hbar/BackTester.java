@@ -18,7 +18,7 @@ public class BackTester extends SimulationServer {
 	}
 	
 	private void backtest() {
-		while(((SimulationDataManager) dataManager).tick(1)) {}
+		((SimulationDataManager) dataManager).advanceTo(Integer.MAX_VALUE);
 		
 		logger.info("done!");
 	}
@@ -0,0 +1,53 @@
+package io.hbar;
+
+import io.hbar.fx.backtest.BacktestJob;
+import io.hbar.fx.backtest.BacktestResult;
+import io.hbar.fx.backtest.BacktestRunner;
+import io.hbar.fx.data.DataManager;
+import io.hbar.fx.execution.ExecutionModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Runs the backtests listed in the config concurrently:
+ * {"dataFile": ..., "threads": 32, "runs": [{"strategy": "io.hbar.fx.strategy.TestStrategy", "parameters": {...}}]}
+ * Orders fill without costs unless "execution" holds an execution model, e.g. {"takerFee": 0.002, "latency": 1}.
+ * "vectorized": true screens strategies that support it on candles instead of replaying the trades.
+ */
+public class BatchBackTester extends SimulationServer {
+	final static Logger logger = LogManager.getLogger(BatchBackTester.class.getName());
+
+	@Override
+	public void start() {
+		config = container.config();
+
+		dataManager = new DataManager(config.getString("dataFile"));
+
+		backtest();
+	}
+
+	private void backtest() {
+		List<BacktestJob> jobs = new ArrayList<BacktestJob>();
+
+		JsonArray runs = config.getArray("runs", new JsonArray());
+		for (Object run : runs) {
+			jobs.add(BacktestJob.fromJson((JsonObject) run));
+		}
+
+		BacktestRunner runner = new BacktestRunner(dataManager.tradeData, getStartTime(), getEndTime(), config.getInteger("threads", 0));
+		runner.setExecutionModel(ExecutionModel.fromJson(config.getObject("execution")));
+		runner.setVectorized(config.getBoolean("vectorized", false));
+
+		for (BacktestResult result : runner.run(jobs)) {
+			logger.info(result.toString());
+		}
+
+		logger.info("done!");
+	}
+}
@@ -1,6 +1,7 @@
 package io.hbar;
 
 import io.hbar.fx.data.SimulationDataManager;
+import io.hbar.fx.execution.ExecutionModel;
 import io.hbar.fx.strategy.TestStrategy;
 
 import java.util.Calendar;
@@ -17,9 +18,18 @@ public class SimulationServer extends WebsocketDataServer {
 
 	@Override
 	protected void createDataManager() {
-		dataManager = new SimulationDataManager(config.getString("dataFile"), new TestStrategy(), getStartTime(), getEndTime());
+		SimulationDataManager simulation = new SimulationDataManager(config.getString("dataFile"), new TestStrategy(), getStartTime(), getEndTime());
+		simulation.setExecutionModel(ExecutionModel.fromJson(config.getObject("execution")));
+
+		dataManager = simulation;
 	}
 	
+	/* ticks update the series in place on the event loop */
+	@Override
+	protected boolean computeOnWorkers() {
+		return false;
+	}
+
 	protected int getStartTime() {
 		Calendar cal = Calendar.getInstance();
 		cal.setTime(new Date());
@@ -47,7 +57,16 @@ public class SimulationServer extends WebsocketDataServer {
 
 				logger.info("Incoming tick request: " + request.toString());
 
-				((SimulationDataManager) dataManager).tick(request.getInteger("steps"));
+				SimulationDataManager simulation = (SimulationDataManager) dataManager;
+
+				/* {"time": timestamp}, {"candles": count, "period": seconds} or {"steps": trades} */
+				if (request.containsField("time")) {
+					simulation.advanceTo(request.getInteger("time"));
+				} else if (request.containsField("candles")) {
+					simulation.advanceCandles(request.getInteger("period", 60), request.getInteger("candles"));
+				} else {
+					simulation.tick(request.getInteger("steps", 1));
+				}
 
 				event.reply("success");
 			}
@@ -0,0 +1,67 @@
+package io.hbar;
+
+import io.hbar.fx.backtest.BacktestJob;
+import io.hbar.fx.backtest.BacktestResult;
+import io.hbar.fx.backtest.BacktestRunner;
+import io.hbar.fx.backtest.ParameterSweep;
+import io.hbar.fx.data.DataManager;
+import io.hbar.fx.execution.ExecutionModel;
+import io.hbar.fx.strategy.ParameterSpace;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Sweeps the parameters of one strategy and logs the ranked results:
+ * {"dataFile": ..., "threads": 32, "strategy": "io.hbar.fx.strategy.TestStrategy", "mode": "grid" | "random",
+ *  "samples": 100, "seed": 0, "top": 20, "space": {"buyThreshold": {"min": 0.005, "max": 0.03, "step": 0.005}}}
+ * Without a space the strategy's own parameter space is swept. "execution" sets the execution model of every run,
+ * "vectorized" screens them on candles.
+ */
+public class SweepBackTester extends SimulationServer {
+	final static Logger logger = LogManager.getLogger(SweepBackTester.class.getName());
+
+	@Override
+	public void start() {
+		config = container.config();
+
+		dataManager = new DataManager(config.getString("dataFile"));
+
+		sweep();
+	}
+
+	private void sweep() {
+		String strategyClass = config.getString("strategy", "io.hbar.fx.strategy.TestStrategy");
+
+		ParameterSpace space;
+		try {
+			JsonObject spaceConfig = config.getObject("space");
+			space = spaceConfig != null ? ParameterSpace.fromJson(spaceConfig) : new BacktestJob(strategyClass, null).createStrategy().getParameterSpace();
+		} catch (Exception e) {
+			logger.error("could not create parameter space for " + strategyClass, e);
+			return;
+		}
+
+		BacktestRunner runner = new BacktestRunner(dataManager.tradeData, getStartTime(), getEndTime(), config.getInteger("threads", 0));
+		runner.setExecutionModel(ExecutionModel.fromJson(config.getObject("execution")));
+		runner.setVectorized(config.getBoolean("vectorized", false));
+		ParameterSweep sweep = new ParameterSweep(runner);
+
+		List<BacktestResult> results;
+		if ("random".equals(config.getString("mode"))) {
+			results = sweep.random(strategyClass, space, config.getInteger("samples", 100), config.getLong("seed", 0));
+		} else {
+			results = sweep.grid(strategyClass, space);
+		}
+
+		int top = Math.min(config.getInteger("top", 20), results.size());
+		for (int i = 0; i < top; i++) {
+			logger.info("#" + (i + 1) + " " + results.get(i));
+		}
+
+		logger.info("done!");
+	}
+}
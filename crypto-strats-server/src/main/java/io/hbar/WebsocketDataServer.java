@@ -1,11 +1,35 @@
 package io.hbar;
 
 import io.hbar.fx.data.DataManager;
+import io.hbar.fx.data.SeriesKey;
+import io.hbar.fx.data.Subscription;
+import io.hbar.fx.data.live.ReplayTradeSource;
+import io.hbar.fx.data.live.TradeIngester;
+import io.hbar.fx.data.live.TradeSource;
+import io.hbar.fx.data.live.XChangeTradeSource;
+import io.hbar.fx.data.store.CandleSnapshots;
+import io.hbar.fx.data.store.TradeStores;
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.ta.IndicatorRegistry;
+import io.hbar.protobuf.serializer.SeriesChunks;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.vertx.java.core.AsyncResult;
+import org.vertx.java.core.Context;
 import org.vertx.java.core.Handler;
 import org.vertx.java.core.eventbus.EventBus;
+import org.vertx.java.core.eventbus.Message;
 import org.vertx.java.core.eventbus.impl.JsonObjectMessage;
 import org.vertx.java.core.http.HttpServer;
 import org.vertx.java.core.json.JsonArray;
@@ -13,27 +37,163 @@ import org.vertx.java.core.json.JsonObject;
 import org.vertx.java.core.sockjs.SockJSServer;
 import org.vertx.java.platform.Verticle;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 public class WebsocketDataServer extends Verticle {
 	final static Logger logger = LogManager.getLogger(WebsocketDataServer.class.getName());
 
 	protected JsonObject config;
 	protected DataManager dataManager;
+	protected TradeIngester ingester;
 	protected EventBus eb;
 	protected HttpServer server;
 
+	private final static int DEFAULT_CHUNK_ROWS = 1000;
+	private final static int MAX_CHUNK_ROWS = 10000;
+
+	/* cache misses are computed here, off the event loop */
+	protected ThreadPoolExecutor computePool;
+	protected long requestTimeout;
+	protected long rejectedRequests = 0;
+	protected long timedOutRequests = 0;
+
+	/* one subscription per series, only touched on the event loop */
+	protected Map<SeriesKey, Subscription> subscriptions = new HashMap<SeriesKey, Subscription>();
+	protected long subscriptionLease;
+	protected int nextSubscription = 0;
+
 	@Override
 	public void start() {
 		config = container.config();
 
 		createDataManager();
+		createIngester();
+		createComputePool();
+		loadSnapshots();
 
 		createServer();
 		registerHandlers();
+		startPushTimer();
+		startSnapshotTimer();
 		startServer();
 	}
 
+	/*
+	 * "dataDir" holds one trade file per symbol, "dataFile" one history for every symbol. With
+	 * "snapshotDir" candles are saved there every snapshotInterval and rebuilt from it.
+	 */
 	protected void createDataManager() {
-		dataManager = new DataManager(config.getString("dataFile"));
+		long cacheSize = config.getLong("cacheSize", DataManager.DEFAULT_CACHE_SIZE);
+
+		if (config.getString("dataDir") != null) {
+			dataManager = new DataManager(new TradeStores(config.getString("dataDir")), cacheSize);
+		} else {
+			dataManager = new DataManager(config.getString("dataFile"), cacheSize);
+		}
+
+		if (config.getString("snapshotDir") != null) {
+			dataManager.setSnapshots(new CandleSnapshots(config.getString("snapshotDir")));
+		}
+	}
+
+	/* on a worker, requests for candles being loaded wait for them in the cache */
+	protected void loadSnapshots() {
+		computePool.execute(new Runnable() {
+			@Override
+			public void run() {
+				long t = System.currentTimeMillis();
+				int loaded = dataManager.loadSnapshots();
+
+				if (loaded > 0) {
+					logger.info("loaded " + loaded + " candle snapshots in " + (System.currentTimeMillis() - t) + "ms");
+				}
+			}
+		});
+	}
+
+	protected void startSnapshotTimer() {
+		if (config.getString("snapshotDir") == null) return;
+
+		vertx.setPeriodic(config.getLong("snapshotInterval", 300000), new Handler<Long>() {
+			@Override
+			public void handle(Long timerId) {
+				try {
+					computePool.execute(new Runnable() {
+						@Override
+						public void run() {
+							saveSnapshots();
+						}
+					});
+				} catch (RejectedExecutionException e) {
+					logger.warn("Workers busy, candle snapshots saved next time");
+				}
+			}
+		});
+	}
+
+	protected void saveSnapshots() {
+		long t = System.currentTimeMillis();
+		int written = dataManager.saveSnapshots();
+
+		if (written > 0) {
+			logger.info("saved " + written + " candle snapshots in " + (System.currentTimeMillis() - t) + "ms");
+		}
+	}
+
+	/*
+	 * Optional "live" config: {source: "xchange", exchange: "com.xeiam.xchange.bitfinex.v1.BitfinexExchange",
+	 * base: "BTC", counter: "USD"} or {source: "replay", file, startTime, speed}, plus the symbol
+	 * fed and pollInterval.
+	 */
+	protected void createIngester() {
+		JsonObject live = config.getObject("live");
+		if (live == null) return;
+
+		TradeSource source;
+
+		try {
+			if ("replay".equals(live.getString("source"))) {
+				source = new ReplayTradeSource(live.getString("file", config.getString("dataFile")), live.getInteger("startTime", 0), live.getNumber(
+						"speed", 1).doubleValue());
+			} else {
+				source = new XChangeTradeSource(live.getString("exchange"), live.getString("base", "BTC"), live.getString("counter", "USD"));
+			}
+		} catch (IOException e) {
+			logger.error("Could not open the live trade source", e);
+			return;
+		}
+
+		ingester = new TradeIngester(source, dataManager, live.getString("symbol", "BTCUSD:Bitfinex"), live.getLong("pollInterval", 500));
+		ingester.start();
+	}
+
+	/* a full queue rejects new misses instead of piling them up */
+	protected void createComputePool() {
+		int threads = config.getInteger("workerThreads", Runtime.getRuntime().availableProcessors());
+		int queue = config.getInteger("workerQueue", 64);
+
+		requestTimeout = config.getLong("requestTimeout", 30000);
+
+		computePool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queue),
+				new ThreadFactoryBuilder().setNameFormat("data-worker-%d").setDaemon(true).build());
+	}
+
+	/* false when the series change under the event loop, everything is then served in place */
+	protected boolean computeOnWorkers() {
+		return true;
+	}
+
+	@Override
+	public void stop() {
+		if (ingester != null) {
+			ingester.stop();
+		}
+		if (computePool != null) {
+			computePool.shutdownNow();
+		}
+		if (dataManager != null) {
+			saveSnapshots();
+		}
 	}
 
 	protected void createServer() {
@@ -44,7 +204,12 @@ public class WebsocketDataServer extends Verticle {
 
 	protected void registerHandlers() {
 		registerDataHandler();
+		registerDataStreamHandler();
 		registerMaxTimestampHandler();
+		registerIndicatorsHandler();
+		registerSymbolsHandler();
+		registerSubscribeHandler();
+		registerStatsHandler();
 	}
 
 	protected void registerDataHandler() {
@@ -55,21 +220,124 @@ public class WebsocketDataServer extends Verticle {
 
 				logger.info("Incoming data request: " + request.toString());
 
-				String symbol = request.getString("symbol");
-				String indicator = request.getString("indicator");
-				int period = request.getInteger("period");
-				int startTime = request.getInteger("startTime");
-				int endTime = request.getInteger("endTime");
-				JsonObject options = request.getObject("options");
+				final String symbol = request.getString("symbol");
+				final String indicator = request.getString("indicator");
+				final int period = request.getInteger("period");
+				final int startTime = request.getInteger("startTime");
+				final int endTime = request.getInteger("endTime");
+				final JsonObject options = request.getObject("options");
+
+				try {
+					FieldSeries<?> series = dataManager.getCachedSeries(symbol, indicator, period, options);
 
-				byte[] d = dataManager.getSerialized(symbol, indicator, period, startTime, endTime, options);
+					if (series != null) {
+						event.reply(series.serialize(startTime, endTime));
+					} else if (!computeOnWorkers()) {
+						event.reply(dataManager.getSerialized(symbol, indicator, period, startTime, endTime, options));
+					} else {
+						new ComputeRequest<byte[]>(event, indicator) {
+							@Override
+							protected byte[] compute() {
+								return dataManager.getSerialized(symbol, indicator, period, startTime, endTime, options);
+							}
 
-				event.reply(d);
+							@Override
+							protected void respond(byte[] data) {
+								event.reply(data);
+							}
+						}.submit();
+					}
+				} catch (IllegalArgumentException e) {
+					logger.warn("Rejected data request: " + e.getMessage());
+
+					event.fail(400, e.getMessage());
+				}
 			}
 		};
 
 		eb.registerHandler("data", handler);
 	}
+
+	/*
+	 * Same request as "data" plus chunkRows and order ("oldest" or "newest" first). Each reply
+	 * carries one chunk {chunk, chunks, last, data}, the client replies to it to pull the next.
+	 * A stream the client stops pulling is dropped after requestTimeout.
+	 */
+	protected void registerDataStreamHandler() {
+		Handler<JsonObjectMessage> handler = new Handler<JsonObjectMessage>() {
+			@Override
+			public void handle(JsonObjectMessage event) {
+				JsonObject request = event.body();
+
+				logger.info("Incoming data stream request: " + request.toString());
+
+				final String symbol = request.getString("symbol");
+				final String indicator = request.getString("indicator");
+				final int period = request.getInteger("period");
+				final int startTime = request.getInteger("startTime");
+				final int endTime = request.getInteger("endTime");
+				final JsonObject options = request.getObject("options");
+
+				final int chunkRows = Math.min(Math.max(request.getInteger("chunkRows", DEFAULT_CHUNK_ROWS), 1), MAX_CHUNK_ROWS);
+				final boolean newestFirst = "newest".equals(request.getString("order"));
+
+				try {
+					FieldSeries<?> series = dataManager.getCachedSeries(symbol, indicator, period, options);
+
+					if (series == null && !computeOnWorkers()) {
+						series = dataManager.getSeries(symbol, indicator, period, options);
+					}
+
+					if (series != null) {
+						sendChunk(event, new SeriesChunks(series, startTime, endTime, chunkRows, newestFirst));
+					} else {
+						new ComputeRequest<FieldSeries<?>>(event, indicator) {
+							@Override
+							protected FieldSeries<?> compute() {
+								return dataManager.getSeries(symbol, indicator, period, options);
+							}
+
+							@Override
+							protected void respond(FieldSeries<?> series) {
+								sendChunk(event, new SeriesChunks(series, startTime, endTime, chunkRows, newestFirst));
+							}
+						}.submit();
+					}
+				} catch (IllegalArgumentException e) {
+					logger.warn("Rejected data stream request: " + e.getMessage());
+
+					event.fail(400, e.getMessage());
+				}
+			}
+		};
+
+		eb.registerHandler("dataStream", handler);
+	}
+
+	private void sendChunk(Message<?> message, final SeriesChunks chunks) {
+		JsonObject chunk = new JsonObject()
+			.putNumber("chunk", chunks.getIndex())
+			.putNumber("chunks", chunks.getCount())
+			.putBinary("data", chunks.next());
+
+		chunk.putBoolean("last", !chunks.hasNext());
+
+		if (!chunks.hasNext()) {
+			message.reply(chunk);
+			return;
+		}
+
+		message.replyWithTimeout(chunk, requestTimeout, new Handler<AsyncResult<Message<JsonObject>>>() {
+			@Override
+			public void handle(AsyncResult<Message<JsonObject>> result) {
+				if (result.succeeded()) {
+					sendChunk(result.result(), chunks);
+				} else {
+					logger.debug("Data stream dropped after chunk " + chunks.getIndex() + " of " + chunks.getCount());
+				}
+			}
+		});
+	}
 	
 	protected void registerMaxTimestampHandler() {
 		Handler<JsonObjectMessage> handler = new Handler<JsonObjectMessage>() {
@@ -79,13 +347,331 @@ public class WebsocketDataServer extends Verticle {
 				
 				logger.info("Incoming maxTime request: " + request.toString());
 				
-				event.reply(new JsonObject().putNumber("timestamp", dataManager.getMaxTime()));
+				String symbol = request.getString("symbol");
+				
+				try {
+					event.reply(new JsonObject().putNumber("timestamp", symbol != null ? dataManager.getMaxTime(symbol) : dataManager.getMaxTime()));
+				} catch (IllegalArgumentException e) {
+					event.fail(400, e.getMessage());
+				}
 			}
 		};
 		
 		eb.registerHandler("maxTime", handler);
 	}
 
+	protected void registerIndicatorsHandler() {
+		Handler<JsonObjectMessage> handler = new Handler<JsonObjectMessage>() {
+			@Override
+			public void handle(JsonObjectMessage event) {
+				logger.info("Incoming indicators request");
+				
+				event.reply(IndicatorRegistry.describe());
+			}
+		};
+		
+		eb.registerHandler("indicators", handler);
+	}
+
+	/*
+	 * Replies {address, lease} for (symbol, indicator, period, options). The client listens on
+	 * the address for {data} deltas and subscribes again within lease milliseconds to keep them
+	 * coming.
+	 */
+	protected void registerSubscribeHandler() {
+		subscriptionLease = config.getLong("subscriptionLease", 60000);
+
+		Handler<JsonObjectMessage> handler = new Handler<JsonObjectMessage>() {
+			@Override
+			public void handle(JsonObjectMessage event) {
+				JsonObject request = event.body();
+
+				logger.info("Incoming subscribe request: " + request.toString());
+
+				final String symbol = request.getString("symbol");
+				final String indicator = request.getString("indicator");
+				final int period = request.getInteger("period");
+				final JsonObject options = request.getObject("options");
+
+				try {
+					FieldSeries<?> series = dataManager.getCachedSeries(symbol, indicator, period, options);
+
+					if (series == null && !computeOnWorkers()) {
+						series = dataManager.getSeries(symbol, indicator, period, options);
+					}
+
+					if (series != null) {
+						subscribe(event, symbol, indicator, period, options, series);
+					} else {
+						new ComputeRequest<FieldSeries<?>>(event, indicator) {
+							@Override
+							protected FieldSeries<?> compute() {
+								return dataManager.getSeries(symbol, indicator, period, options);
+							}
+
+							@Override
+							protected void respond(FieldSeries<?> series) {
+								subscribe(event, symbol, indicator, period, options, series);
+							}
+						}.submit();
+					}
+				} catch (IllegalArgumentException e) {
+					logger.warn("Rejected subscribe request: " + e.getMessage());
+
+					event.fail(400, e.getMessage());
+				}
+			}
+		};
+
+		eb.registerHandler("subscribe", handler);
+	}
+
+	private void subscribe(Message<?> message, String symbol, String indicator, int period, JsonObject options, FieldSeries<?> series) {
+		SeriesKey key = new SeriesKey(symbol, indicator, period, options);
+		Subscription subscription = subscriptions.get(key);
+
+		if (subscription == null) {
+			subscription = new Subscription(key, options, "updates." + nextSubscription++);
+			subscription.start(series);
+
+			subscriptions.put(key, subscription);
+		}
+
+		subscription.renew(System.currentTimeMillis() + subscriptionLease);
+
+		message.reply(new JsonObject().putString("address", subscription.getAddress()).putNumber("lease", subscriptionLease));
+	}
+
+	/* every pushInterval the changed rows of each followed series are published to its subscribers */
+	protected void startPushTimer() {
+		vertx.setPeriodic(config.getLong("pushInterval", 1000), new Handler<Long>() {
+			@Override
+			public void handle(Long timerId) {
+				pushUpdates();
+			}
+		});
+	}
+
+	protected void pushUpdates() {
+		long now = System.currentTimeMillis();
+
+		Iterator<Subscription> iterator = subscriptions.values().iterator();
+		while (iterator.hasNext()) {
+			Subscription subscription = iterator.next();
+
+			if (subscription.isExpired(now)) {
+				iterator.remove();
+				continue;
+			}
+
+			SeriesKey key = subscription.getKey();
+			FieldSeries<?> series = dataManager.getCachedSeries(key.getSymbol(), key.getIndicator(), key.getPeriod(), subscription.getOptions());
+
+			if (series != null) {
+				push(subscription, series);
+			} else {
+				recompute(subscription);
+			}
+		}
+	}
+
+	private void push(Subscription subscription, FieldSeries<?> series) {
+		byte[] delta = subscription.getDelta(series);
+
+		if (delta != null) {
+			eb.publish(subscription.getAddress(), new JsonObject().putBinary("data", delta));
+		}
+	}
+
+	/*
+	 * A followed series evicted from the cache is computed again on the pool, its subscribers
+	 * then get every row changed since the last one sent. Busy workers retry on the next push.
+	 */
+	private void recompute(final Subscription subscription) {
+		final SeriesKey key = subscription.getKey();
+
+		if (!computeOnWorkers()) {
+			push(subscription, dataManager.getSeries(key.getSymbol(), key.getIndicator(), key.getPeriod(), subscription.getOptions()));
+			return;
+		}
+
+		if (subscription.isRecomputing()) return;
+		subscription.setRecomputing(true);
+
+		final Context context = vertx.currentContext();
+
+		try {
+			computePool.execute(new Runnable() {
+				@Override
+				public void run() {
+					FieldSeries<?> series = null;
+
+					try {
+						series = dataManager.getSeries(key.getSymbol(), key.getIndicator(), key.getPeriod(), subscription.getOptions());
+					} catch (RuntimeException e) {
+						logger.error("Failed to recompute " + key, e);
+					}
+
+					final FieldSeries<?> result = series;
+
+					context.runOnContext(new Handler<Void>() {
+						@Override
+						public void handle(Void v) {
+							subscription.setRecomputing(false);
+
+							if (result != null && subscriptions.get(key) == subscription) {
+								push(subscription, result);
+							}
+						}
+					});
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			subscription.setRecomputing(false);
+			logger.warn("Workers busy, " + key + " is recomputed on the next push");
+		}
+	}
+
+	protected void registerSymbolsHandler() {
+		Handler<JsonObjectMessage> handler = new Handler<JsonObjectMessage>() {
+			@Override
+			public void handle(JsonObjectMessage event) {
+				event.reply(new JsonObject().putArray("symbols", new JsonArray(dataManager.getSymbols().toArray())));
+			}
+		};
+		
+		eb.registerHandler("symbols", handler);
+	}
+
+	protected void registerStatsHandler() {
+		Handler<JsonObjectMessage> handler = new Handler<JsonObjectMessage>() {
+			@Override
+			public void handle(JsonObjectMessage event) {
+				JsonObject stats = new JsonObject()
+					.putObject("cache", dataManager.getCacheStats())
+					.putObject("workers", getWorkerStats())
+					.putNumber("subscriptions", subscriptions.size());
+
+				if (ingester != null) {
+					stats.putObject("ingest", ingester.getStats());
+				}
+
+				event.reply(stats);
+			}
+		};
+		
+		eb.registerHandler("stats", handler);
+	}
+
+	protected JsonObject getWorkerStats() {
+		return new JsonObject()
+			.putNumber("threads", computePool.getPoolSize())
+			.putNumber("active", computePool.getActiveCount())
+			.putNumber("queued", computePool.getQueue().size())
+			.putNumber("completed", computePool.getCompletedTaskCount())
+			.putNumber("rejected", rejectedRequests)
+			.putNumber("timedOut", timedOutRequests);
+	}
+
+	/*
+	 * A data request computed on the pool and answered by respond. The reply, the timeout and the
+	 * done flag are all handled on the event loop that received the request.
+	 */
+	private abstract class ComputeRequest<R> implements Runnable {
+		protected JsonObjectMessage event;
+		private String indicator;
+
+		private Context context;
+		private Future<?> future;
+		private long timerId;
+		private boolean done = false;
+
+		public ComputeRequest(JsonObjectMessage event, String indicator) {
+			this.event = event;
+			this.indicator = indicator;
+		}
+
+		/* runs on a worker thread */
+		protected abstract R compute();
+
+		protected abstract void respond(R result);
+
+		public void submit() {
+			context = vertx.currentContext();
+
+			try {
+				future = computePool.submit(this);
+			} catch (RejectedExecutionException e) {
+				rejectedRequests++;
+				logger.warn("Compute queue full, rejected data request for " + indicator);
+
+				event.fail(503, "Server busy, retry later");
+				return;
+			}
+
+			timerId = vertx.setTimer(requestTimeout, new Handler<Long>() {
+				@Override
+				public void handle(Long timerId) {
+					timeout();
+				}
+			});
+		}
+
+		@Override
+		public void run() {
+			R result = null;
+			int failureCode = 0;
+			String failure = null;
+
+			try {
+				result = compute();
+			} catch (IllegalArgumentException e) {
+				failureCode = 400;
+				failure = e.getMessage();
+			} catch (RuntimeException e) {
+				logger.error("Failed data request for " + indicator, e);
+
+				failureCode = 500;
+				failure = "Failed to compute " + indicator;
+			}
+
+			final R reply = result;
+			final int code = failureCode;
+			final String message = failure;
+
+			context.runOnContext(new Handler<Void>() {
+				@Override
+				public void handle(Void v) {
+					complete(reply, code, message);
+				}
+			});
+		}
+
+		private void complete(R result, int failureCode, String failure) {
+			if (done) return;
+			done = true;
+
+			vertx.cancelTimer(timerId);
+
+			if (failure == null) {
+				respond(result);
+			} else {
+				event.fail(failureCode, failure);
+			}
+		}
+
+		/* a request still queued is dropped, a running one still fills the cache */
+		private void timeout() {
+			if (done) return;
+			done = true;
+
+			future.cancel(false);
+			timedOutRequests++;
+
+			event.fail(504, "Timed out computing " + indicator);
+		}
+	}
+
 	private void startServer() {
 		server.listen(80);
 	}
@@ -0,0 +1,38 @@
+package io.hbar.fx.backtest;
+
+import io.hbar.fx.strategy.Strategy;
+
+import org.vertx.java.core.json.JsonObject;
+
+public class BacktestJob {
+	private String strategyClass;
+	private JsonObject parameters;
+
+	public BacktestJob(String strategyClass, JsonObject parameters) {
+		this.strategyClass = strategyClass;
+		this.parameters = parameters != null ? parameters : new JsonObject();
+	}
+
+	/* {"strategy": "io.hbar.fx.strategy.TestStrategy", "parameters": {...}} */
+	public static BacktestJob fromJson(JsonObject json) {
+		return new BacktestJob(json.getString("strategy"), json.getObject("parameters"));
+	}
+
+	public Strategy createStrategy() throws Exception {
+		Strategy strategy = (Strategy) Class.forName(strategyClass).newInstance();
+		strategy.setParameters(parameters);
+		return strategy;
+	}
+
+	public String getStrategyClass() {
+		return strategyClass;
+	}
+
+	public JsonObject getParameters() {
+		return parameters;
+	}
+
+	public String toString() {
+		return strategyClass + " " + parameters;
+	}
+}
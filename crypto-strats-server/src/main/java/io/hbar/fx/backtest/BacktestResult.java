@@ -0,0 +1,142 @@
+package io.hbar.fx.backtest;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.types.StrategyStats;
+
+import java.util.Comparator;
+
+import org.vertx.java.core.json.JsonObject;
+
+public class BacktestResult {
+	/* best PnL first, then smaller drawdown, failed runs last */
+	public final static Comparator<BacktestResult> BY_PNL = new Comparator<BacktestResult>() {
+		@Override
+		public int compare(BacktestResult a, BacktestResult b) {
+			if (a.isFailed() || b.isFailed()) {
+				return Boolean.compare(a.isFailed(), b.isFailed());
+			}
+
+			int result = Double.compare(b.pnl, a.pnl);
+			return result != 0 ? result : Double.compare(a.drawdown, b.drawdown);
+		}
+	};
+
+
+	private BacktestJob job;
+	private FieldSeries<StrategyStats> stats;
+	private long elapsed;
+
+	private int trades;
+	private double bought;
+	private double sold;
+	private double position;
+	private double cash;
+	private double fees;
+	private double pnl;
+	private double drawdown;
+
+	private String error;
+
+	public BacktestResult(BacktestJob job, FieldSeries<StrategyStats> stats, double lastPrice, long elapsed) {
+		this.job = job;
+		this.stats = stats;
+		this.elapsed = elapsed;
+
+		summarize(lastPrice);
+	}
+
+	public BacktestResult(BacktestJob job, Throwable e) {
+		this.job = job;
+		this.error = e.toString();
+	}
+
+	/* open position is marked at the last replayed price, the equity curve at every fill */
+	private void summarize(double lastPrice) {
+		double[] prices = stats.getColumn(StrategyStats.Price);
+		double[] volumes = stats.getColumn(StrategyStats.Volume);
+		double[] totalFees = stats.getColumn(StrategyStats.Fees);
+		double peak = 0;
+
+		trades = stats.size();
+		for (int i = 0; i < trades; i++) {
+			if (volumes[i] > 0) {
+				bought += volumes[i];
+			} else {
+				sold -= volumes[i];
+			}
+
+			position += volumes[i];
+			cash -= prices[i] * volumes[i];
+
+			fees = totalFees[i];
+
+			double equity = cash + position * prices[i] - fees;
+			peak = Math.max(peak, equity);
+			drawdown = Math.max(drawdown, peak - equity);
+		}
+
+		pnl = (position == 0 ? cash : cash + position * lastPrice) - fees;
+		drawdown = Math.max(drawdown, peak - pnl);
+	}
+
+	public BacktestJob getJob() {
+		return job;
+	}
+
+	public FieldSeries<StrategyStats> getStats() {
+		return stats;
+	}
+
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	public int getTrades() {
+		return trades;
+	}
+
+	public double getPosition() {
+		return position;
+	}
+
+	public double getFees() {
+		return fees;
+	}
+
+	/* net of fees */
+	public double getPnl() {
+		return pnl;
+	}
+
+	public double getDrawdown() {
+		return drawdown;
+	}
+
+	public boolean isFailed() {
+		return error != null;
+	}
+
+	public JsonObject toJson() {
+		JsonObject json = new JsonObject()
+			.putString("strategy", job.getStrategyClass())
+			.putObject("parameters", job.getParameters());
+
+		if (isFailed()) {
+			return json.putString("error", error);
+		}
+
+		return json
+			.putNumber("trades", trades)
+			.putNumber("bought", bought)
+			.putNumber("sold", sold)
+			.putNumber("position", position)
+			.putNumber("fees", fees)
+			.putNumber("pnl", pnl)
+			.putNumber("drawdown", drawdown)
+			.putNumber("elapsed", elapsed);
+	}
+
+	public String toString() {
+		return toJson().toString();
+	}
+}
@@ -0,0 +1,176 @@
+package io.hbar.fx.backtest;
+
+import io.hbar.fx.data.CandleStore;
+import io.hbar.fx.data.SimulationDataManager;
+import io.hbar.fx.data.store.TradeStore;
+import io.hbar.fx.execution.ExecutionModel;
+import io.hbar.fx.strategy.Strategy;
+import io.hbar.fx.strategy.VectorizedStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * Runs backtests concurrently over one trade store and one set of warm up candles, each job
+ * gets its own strategy. Vectorized runs evaluate strategies that support it over candles of
+ * the whole history instead of replaying the trades, for quick screening.
+ */
+public class BacktestRunner {
+	final static Logger logger = LogManager.getLogger(BacktestRunner.class.getName());
+
+	private CandleStore candles;
+	private int threads;
+	private ExecutionModel executionModel = ExecutionModel.DEFAULT;
+
+	private boolean vectorized = false;
+	private CandleStore history;
+
+	public BacktestRunner(TradeStore tradeData, int startTime, int endTime, int threads) {
+		this(new CandleStore(tradeData, startTime, endTime), threads);
+	}
+
+	public BacktestRunner(CandleStore candles, int threads) {
+		this.candles = candles;
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/*
+	 * Results are in job order, a failed job yields a result carrying its error. Jobs are split
+	 * into one group per thread and each group is replayed by a single data manager, so runs
+	 * asking for the same series with the same options share it.
+	 */
+	public List<BacktestResult> run(List<BacktestJob> jobs) {
+		int groups = Math.min(threads, Math.max(jobs.size(), 1));
+
+		List<List<BacktestJob>> groupJobs = new ArrayList<List<BacktestJob>>();
+		List<Callable<List<BacktestResult>>> tasks = new ArrayList<Callable<List<BacktestResult>>>();
+		for (int g = 0; g < groups; g++) {
+			final List<BacktestJob> group = jobs.subList(g * jobs.size() / groups, (g + 1) * jobs.size() / groups);
+
+			groupJobs.add(group);
+			tasks.add(new Callable<List<BacktestResult>>() {
+				@Override
+				public List<BacktestResult> call() throws Exception {
+					return runGroup(group);
+				}
+			});
+		}
+
+		List<BacktestResult> results = new ArrayList<BacktestResult>();
+		ForkJoinPool pool = new ForkJoinPool(groups);
+
+		try {
+			List<Future<List<BacktestResult>>> futures = pool.invokeAll(tasks);
+
+			for (int g = 0; g < groups; g++) {
+				try {
+					results.addAll(futures.get(g).get());
+				} catch (ExecutionException e) {
+					/* runGroup catches exceptions, only errors get here */
+					logger.error("backtest group failed", e.getCause());
+					for (BacktestJob job : groupJobs.get(g)) {
+						results.add(new BacktestResult(job, e.getCause()));
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdown();
+		}
+
+		return results;
+	}
+
+	/* a group that fails is replayed job by job so one broken run does not take the others down */
+	public List<BacktestResult> runGroup(List<BacktestJob> jobs) {
+		List<BacktestResult> results = new ArrayList<BacktestResult>();
+		long t = System.currentTimeMillis();
+
+		try {
+			List<Strategy> strategies = new ArrayList<Strategy>();
+			for (BacktestJob job : jobs) {
+				strategies.add(job.createStrategy());
+			}
+
+			if (strategies.isEmpty()) {
+				return results;
+			}
+
+			boolean vectorize = vectorized && isVectorized(strategies);
+			if (vectorized && !vectorize) {
+				logger.warn("replaying backtest group, not every strategy can be vectorized");
+			}
+
+			SimulationDataManager dataManager = new SimulationDataManager(vectorize ? getHistory() : candles, strategies);
+			dataManager.setExecutionModel(executionModel);
+
+			if (vectorize) {
+				dataManager.evaluate(candles.getEndIndex());
+			} else {
+				dataManager.advanceTo(Integer.MAX_VALUE);
+			}
+
+			long elapsed = System.currentTimeMillis() - t;
+			for (int i = 0; i < jobs.size(); i++) {
+				results.add(new BacktestResult(jobs.get(i), strategies.get(i).getSeries(), dataManager.getLastPrice(), elapsed));
+			}
+
+			logger.info("backtest group of " + jobs.size() + " done in " + elapsed + "ms");
+		} catch (Exception e) {
+			if (jobs.size() == 1) {
+				logger.error("backtest failed: " + jobs.get(0), e);
+				results.add(new BacktestResult(jobs.get(0), e));
+				return results;
+			}
+
+			results.clear();
+			for (BacktestJob job : jobs) {
+				results.addAll(runGroup(Collections.singletonList(job)));
+			}
+		}
+
+		return results;
+	}
+
+	private boolean isVectorized(List<Strategy> strategies) {
+		for (Strategy strategy : strategies) {
+			if (!(strategy instanceof VectorizedStrategy)) return false;
+		}
+		return true;
+	}
+
+	/* candles from the start of the warm up to the end of the trades, built once for all vectorized groups */
+	private synchronized CandleStore getHistory() {
+		if (history == null) {
+			history = new CandleStore(candles.getTradeStore(), candles.getStartTime(), Integer.MAX_VALUE);
+		}
+		return history;
+	}
+
+	public BacktestResult runJob(BacktestJob job) {
+		return runGroup(Collections.singletonList(job)).get(0);
+	}
+
+	/* fees, slippage and latency every job's orders are filled with */
+	public void setExecutionModel(ExecutionModel executionModel) {
+		this.executionModel = executionModel;
+	}
+
+	/* screening mode, strategies that are no VectorizedStrategy are still replayed */
+	public void setVectorized(boolean vectorized) {
+		this.vectorized = vectorized;
+	}
+
+	public CandleStore getCandleStore() {
+		return candles;
+	}
+}
@@ -0,0 +1,47 @@
+package io.hbar.fx.backtest;
+
+import io.hbar.fx.strategy.ParameterSpace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Backtests one strategy over the points of a parameter space and ranks the results.
+ */
+public class ParameterSweep {
+	final static Logger logger = LogManager.getLogger(ParameterSweep.class.getName());
+
+	private BacktestRunner runner;
+
+	public ParameterSweep(BacktestRunner runner) {
+		this.runner = runner;
+	}
+
+	public List<BacktestResult> grid(String strategyClass, ParameterSpace space) {
+		return sweep(strategyClass, space.grid());
+	}
+
+	public List<BacktestResult> random(String strategyClass, ParameterSpace space, int samples, long seed) {
+		return sweep(strategyClass, space.sample(samples, new Random(seed)));
+	}
+
+	public List<BacktestResult> sweep(String strategyClass, List<JsonObject> points) {
+		logger.info("sweeping " + points.size() + " points of " + strategyClass);
+
+		List<BacktestJob> jobs = new ArrayList<BacktestJob>();
+		for (JsonObject parameters : points) {
+			jobs.add(new BacktestJob(strategyClass, parameters));
+		}
+
+		List<BacktestResult> results = runner.run(jobs);
+		Collections.sort(results, BacktestResult.BY_PNL);
+
+		return results;
+	}
+}
@@ -0,0 +1,102 @@
+package io.hbar.fx.data;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.store.TradeStore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Candles of a simulation window [startTime, endTime], built once per period from the trade
+ * store, or rolled up from a built period dividing it, and shared read only between
+ * simulations, each of which replays on its own copy.
+ */
+public class CandleStore {
+	private TradeStore tradeData;
+	private int startTime;
+	private int endTime;
+	private int startIndex;
+	private int endIndex;
+
+	private Map<Integer, OHLCVSeries> candles = new HashMap<Integer, OHLCVSeries>();
+
+	public CandleStore(TradeStore tradeData, int startTime, int endTime) {
+		this.tradeData = tradeData;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.startIndex = tradeData.ceilingIndex(startTime);
+		this.endIndex = tradeData.higherIndex(endTime);
+	}
+
+	public synchronized OHLCVSeries getCandles(int period) {
+		OHLCVSeries ohlcv = candles.get(period);
+
+		if (ohlcv == null) {
+			OHLCVSeries lower = getRollUpSource(period);
+
+			try {
+				if (lower != null) {
+					ohlcv = lower.rollUp(period);
+				} else {
+					ohlcv = new OHLCVSeries(period);
+
+					for (int i = startIndex; i < endIndex; i++) {
+						ohlcv.addTrade(tradeData.getTimestamp(i), tradeData.getPrice(i), tradeData.getVolume(i));
+					}
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+				ohlcv = new OHLCVSeries(period);
+			}
+
+			candles.put(period, ohlcv);
+		}
+
+		return ohlcv;
+	}
+
+	/* built candles with the largest period dividing this one, null if there are none */
+	private OHLCVSeries getRollUpSource(int period) {
+		OHLCVSeries lower = null;
+
+		for (OHLCVSeries ohlcv : candles.values()) {
+			int lowerPeriod = ohlcv.getPeriod();
+
+			if (lowerPeriod > 0 && lowerPeriod < period && period % lowerPeriod == 0 && (lower == null || lowerPeriod > lower.getPeriod())) {
+				lower = ohlcv;
+			}
+		}
+
+		return lower;
+	}
+
+	public OHLCVSeries copyCandles(int period) {
+		OHLCVSeries ohlcv = getCandles(period);
+
+		synchronized (ohlcv) {
+			return ohlcv.copy();
+		}
+	}
+
+	public TradeStore getTradeStore() {
+		return tradeData;
+	}
+
+	public int getStartTime() {
+		return startTime;
+	}
+
+	public int getEndTime() {
+		return endTime;
+	}
+
+	/* index of the first trade in the window */
+	public int getStartIndex() {
+		return startIndex;
+	}
+
+	/* index of the first trade after the window */
+	public int getEndIndex() {
+		return endIndex;
+	}
+}
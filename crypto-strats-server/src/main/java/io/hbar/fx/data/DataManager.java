@@ -2,76 +2,236 @@ package io.hbar.fx.data;
 
 import io.hbar.fx.data.series.FieldSeries;
 import io.hbar.fx.data.series.OHLCVSeries;
-import io.hbar.fx.ta.TaLib;
+import io.hbar.fx.data.store.CandleSnapshots;
+import io.hbar.fx.data.store.CandleSnapshots.Snapshot;
+import io.hbar.fx.data.store.LiveTradeStore;
+import io.hbar.fx.data.store.MappedTradeStore;
+import io.hbar.fx.data.store.TradeStore;
+import io.hbar.fx.data.store.TradeStores;
+import io.hbar.fx.ta.IndicatorFactory;
+import io.hbar.fx.ta.IndicatorRegistry;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vertx.java.core.json.JsonObject;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 public class DataManager {
 	final static Logger logger = LogManager.getLogger(DataManager.class.getName());
 	
-	public List<Trade> tradeData;
+	/* kilobytes of series columns kept in the cache */
+	public final static long DEFAULT_CACHE_SIZE = 256 * 1024;
+	
+	/* the store every symbol reads, null when each symbol has its own */
+	public TradeStore tradeData;
+	
+	protected TradeStores stores;
+	
+	protected Cache<SeriesKey, FieldSeries<?>> cache;
+	
+	/* backing array capacity of each cached series when the cache last weighed it */
+	protected Map<SeriesKey, Integer> weighedCapacities = new ConcurrentHashMap<SeriesKey, Integer>();
 	
-	protected Map<String, Map<String, Map<Integer, Map<Integer, FieldSeries<?>>>>> cache = new HashMap<String, Map<String, Map<Integer, Map<Integer, FieldSeries<?>>>>>();
+	/* candles following each live store, with how many of its trades each one holds */
+	protected Map<LiveTradeStore, Map<OHLCVSeries, Integer>> liveCandles = new HashMap<LiveTradeStore, Map<OHLCVSeries, Integer>>();
+	
+	protected CandleSnapshots snapshots;
 	
 
 	public DataManager(String dataFile) {
+		this(dataFile, DEFAULT_CACHE_SIZE);
+	}
+	
+	public DataManager(String dataFile, long cacheSize) {
+		cache = createCache(cacheSize);
 		loadData(dataFile);
 	}
 	
+	public DataManager(TradeStore tradeData) {
+		this(tradeData, DEFAULT_CACHE_SIZE);
+	}
+	
+	public DataManager(TradeStore tradeData, long cacheSize) {
+		cache = createCache(cacheSize);
+		this.tradeData = tradeData;
+		this.stores = new TradeStores(tradeData);
+	}
+	
+	/* one trade store per symbol, see TradeStores */
+	public DataManager(TradeStores stores, long cacheSize) {
+		cache = createCache(cacheSize);
+		this.stores = stores;
+	}
+	
+	/*
+	 * Least recently used series are evicted once the columns outweigh cacheSize kilobytes.
+	 * Series are weighed by the capacity of their backing arrays, but Guava only weighs an entry
+	 * when it is written: live series growing past the capacity they were weighed at are put
+	 * back by reweigh, which happens once per geometric growth of their arrays.
+	 */
+	protected Cache<SeriesKey, FieldSeries<?>> createCache(long cacheSize) {
+		return CacheBuilder.newBuilder()
+			.maximumWeight(cacheSize)
+			.weigher(new Weigher<SeriesKey, FieldSeries<?>>() {
+				@Override
+				public int weigh(SeriesKey key, FieldSeries<?> series) {
+					int capacity = series.getTimestampColumn().length;
+					weighedCapacities.put(key, capacity);
+					
+					long bytes = (long) capacity * (4 + 8 * series.getFields().length);
+					return (int) Math.min(bytes / 1024 + 1, Integer.MAX_VALUE);
+				}
+			})
+			.removalListener(new RemovalListener<SeriesKey, FieldSeries<?>>() {
+				@Override
+				public void onRemoval(RemovalNotification<SeriesKey, FieldSeries<?>> notification) {
+					if (notification.wasEvicted()) {
+						logger.debug("evicted " + notification.getKey() + " (" + notification.getCause() + ")");
+					}
+					
+					/* reweigh puts the same series back, it stays live */
+					if (notification.getCause() == RemovalCause.REPLACED) return;
+					
+					weighedCapacities.remove(notification.getKey());
+					
+					if (notification.getValue() instanceof OHLCVSeries) {
+						synchronized (liveCandles) {
+							for (Map<OHLCVSeries, Integer> candles : liveCandles.values()) {
+								candles.remove(notification.getValue());
+							}
+						}
+					}
+				}
+			})
+			.recordStats()
+			.build();
+	}
+	
 	@SuppressWarnings("unchecked")
 	public <T extends Enum<T>> FieldSeries<T> getSeries(String symbol, Class<T> indicator, int period, JsonObject options) {
 		return (FieldSeries<T>) getSeries(symbol, indicator.getSimpleName(), period, options);
 	}
 	
-	public FieldSeries<?> getSeries(String symbol, String indicator, int period, JsonObject options) {
-		if(!cache.containsKey(symbol)) 
-			cache.put(symbol, new HashMap<String, Map<Integer, Map<Integer, FieldSeries<?>>>>());
+	/* throws IllegalArgumentException for unknown indicators or invalid options, concurrent misses on a key compute it once */
+	public FieldSeries<?> getSeries(final String symbol, String indicator, final int period, final JsonObject options) {
+		final SeriesKey key = new SeriesKey(symbol, indicator, period, options);
 		
-		if(!cache.get(symbol).containsKey(indicator))
-			cache.get(symbol).put(indicator, new HashMap<Integer, Map<Integer, FieldSeries<?>>>());
+		try {
+			return cache.get(key, new Callable<FieldSeries<?>>() {
+				@Override
+				public FieldSeries<?> call() throws Exception {
+					if(!key.getIndicator().equals("OHLCV")) {
+						IndicatorRegistry.get(key.getIndicator()).validate(options);
+					}
+					
+					return createSeries(symbol, key.getIndicator(), period, options);
+				}
+			});
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} catch (UncheckedExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+	
+	/* null when the series is not cached, never computes and does not count in the cache stats */
+	public FieldSeries<?> getCachedSeries(String symbol, String indicator, int period, JsonObject options) {
+		return cache.asMap().get(new SeriesKey(symbol, indicator, period, options));
+	}
+	
+	protected FieldSeries<?> createSeries(String symbol, String indicator, int period, JsonObject options) {
+		TradeStore store = getTradeStore(symbol);
 		
-		if(!cache.get(symbol).get(indicator).containsKey(period)) {
-			cache.get(symbol).get(indicator).put(period, new HashMap<Integer, FieldSeries<?>>());
+		if(indicator.equals("OHLCV")) {
+			return store instanceof LiveTradeStore ? createLiveOHLCVSeries(symbol, (LiveTradeStore) store, period) : createOHLCVSeries(symbol, period);
 		}
 		
-		int optionsHash = options.toString().hashCode();
+		IndicatorFactory<?> factory = IndicatorRegistry.get(indicator);
+		OHLCVSeries ohlcv = (OHLCVSeries) getSeries(symbol, "OHLCV", period, new JsonObject());
 		
-		if(!cache.get(symbol).get(indicator).get(period).containsKey(optionsHash)) {
-			if(indicator.equals("OHLCV")) {
-				cache.get(symbol).get(indicator).get(period).put(optionsHash, createOHLCVSeries(period));
-			} else {
-				try {
-					cache.get(symbol).get(indicator).get(period).put(optionsHash, (FieldSeries<?>) TaLib.class.getMethod(indicator.toLowerCase(), OHLCVSeries.class, JsonObject.class).invoke(null, (OHLCVSeries) getSeries(symbol, "OHLCV", period, new JsonObject()), options));
-				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-					e.printStackTrace();
+		return store instanceof LiveTradeStore ? computeLive(factory, ohlcv, options) : factory.compute(ohlcv, options);
+	}
+	
+	public byte[] getSerialized(String symbol, String indicator, int period, int startTime, int endTime, JsonObject options) {
+		return getSeries(symbol, indicator, period, options).serialize(startTime, endTime);
+	}
+	
+	/* throws IllegalArgumentException for a symbol without trades */
+	public TradeStore getTradeStore(String symbol) {
+		return stores.get(symbol);
+	}
+	
+	public List<String> getSymbols() {
+		return stores.getSymbols();
+	}
+	
+	/* rolled up from cached candles of a period dividing this one when there are some, from the trades otherwise */
+	public OHLCVSeries createOHLCVSeries(String symbol, int period) {
+		OHLCVSeries lower = getRollUpSource(symbol, period);
+		
+		if(lower != null) {
+			try {
+				synchronized (lower) {
+					return lower.rollUp(period);
 				}
+			} catch (Exception e) {
+				e.printStackTrace();
 			}
 		}
 		
-		return cache.get(symbol).get(indicator).get(period).get(optionsHash);
+		TradeStore store = getTradeStore(symbol);
+		return createOHLCVSeries(symbol, store, period, store.size());
 	}
 	
-	public byte[] getSerialized(String symbol, String indicator, int period, int startTime, int endTime, JsonObject options) {
-		return getSeries(symbol, indicator, period, options).serialize(startTime, endTime);
+	/* the cached candles of the symbol with the largest period dividing this one, null if there are none */
+	protected OHLCVSeries getRollUpSource(String symbol, int period) {
+		OHLCVSeries lower = null;
+		
+		for(Map.Entry<SeriesKey, FieldSeries<?>> entry : cache.asMap().entrySet()) {
+			SeriesKey key = entry.getKey();
+			int lowerPeriod = key.getPeriod();
+			
+			if(!key.getIndicator().equals("OHLCV") || !key.getSymbol().equals(symbol)) continue;
+			if(lowerPeriod <= 0 || lowerPeriod >= period || period % lowerPeriod != 0) continue;
+			
+			if(lower == null || lowerPeriod > lower.getPeriod()) {
+				lower = (OHLCVSeries) entry.getValue();
+			}
+		}
+		
+		return lower;
 	}
 	
-	public OHLCVSeries createOHLCVSeries(int period) {
-		OHLCVSeries ohlcv = new OHLCVSeries(period);
+	/* candles of the first count trades, only the trades after a snapshot are replayed */
+	protected OHLCVSeries createOHLCVSeries(String symbol, TradeStore store, int period, int count) {
+		Snapshot snapshot = snapshots != null ? snapshots.load(symbol, period, store) : null;
+		
+		if(snapshot == null || snapshot.getTradeCount() > count) {
+			snapshot = new Snapshot(new OHLCVSeries(period), 0);
+		}
+		
+		OHLCVSeries ohlcv = snapshot.getCandles();
 		
 		try {
-			for(Trade trade : tradeData) {
-				ohlcv.addTrade(trade);
+			for(int i = snapshot.getTradeCount(); i < count; i++) {
+				ohlcv.addTrade(store.getTimestamp(i), store.getPrice(i), store.getVolume(i));
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -80,26 +240,282 @@ public class DataManager {
 		return ohlcv;
 	}
 	
+	/*
+	 * Trades can be appended to the symbol's store with addTrades from now on. Symbols sharing
+	 * the store share its live trades, series cached before are dropped.
+	 */
+	public synchronized LiveTradeStore enableLiveUpdates(String symbol) {
+		TradeStore store = getTradeStore(symbol);
+		if(store instanceof LiveTradeStore) return (LiveTradeStore) store;
+		
+		LiveTradeStore live = new LiveTradeStore(store);
+		stores.replace(symbol, live);
+		
+		if(tradeData == store) {
+			tradeData = live;
+		}
+		
+		synchronized (liveCandles) {
+			liveCandles.put(live, new HashMap<OHLCVSeries, Integer>());
+		}
+		
+		for(SeriesKey key : cache.asMap().keySet()) {
+			if(getTradeStore(key.getSymbol()) == live) {
+				cache.invalidate(key);
+			}
+		}
+		
+		return live;
+	}
+	
+	public boolean isLive(String symbol) {
+		return getTradeStore(symbol) instanceof LiveTradeStore;
+	}
+	
+	/*
+	 * Appends trades in time order, then brings the candles and every cached indicator of the
+	 * store up to date. Each series is updated under its own lock, readers serialize under the
+	 * same lock.
+	 */
+	public void addTrades(String symbol, List<? extends Trade> trades) {
+		TradeStore store = getTradeStore(symbol);
+		
+		if(!(store instanceof LiveTradeStore)) {
+			throw new IllegalStateException("Live updates are not enabled for " + symbol);
+		}
+		
+		LiveTradeStore live = (LiveTradeStore) store;
+		
+		synchronized (liveCandles) {
+			for(Trade trade : trades) {
+				live.append(trade.getTimestamp(), trade.getPrice(), trade.getVolume());
+			}
+			
+			int size = live.size();
+			
+			for(Map.Entry<OHLCVSeries, Integer> entry : liveCandles.get(live).entrySet()) {
+				addTrades(live, entry.getKey(), entry.getValue(), size);
+				entry.setValue(size);
+			}
+		}
+		
+		for(Map.Entry<SeriesKey, FieldSeries<?>> entry : cache.asMap().entrySet()) {
+			SeriesKey key = entry.getKey();
+			if(key.getIndicator().equals("OHLCV") || getTradeStore(key.getSymbol()) != live) continue;
+			
+			FieldSeries<?> ohlcv = getCachedSeries(key.getSymbol(), "OHLCV", key.getPeriod(), new JsonObject());
+			
+			if(ohlcv == null) {
+				/* computed from candles that were evicted since, the next request recomputes it */
+				cache.invalidate(key);
+				continue;
+			}
+			
+			mergeTail(IndicatorRegistry.get(key.getIndicator()), entry.getValue(), (OHLCVSeries) ohlcv);
+		}
+		
+		reweigh(live);
+	}
+	
+	/* puts back the series of the store that outgrew the capacity they were weighed at, evicting others if needed */
+	private void reweigh(LiveTradeStore live) {
+		for(Map.Entry<SeriesKey, FieldSeries<?>> entry : cache.asMap().entrySet()) {
+			SeriesKey key = entry.getKey();
+			FieldSeries<?> series = entry.getValue();
+			if(getTradeStore(key.getSymbol()) != live) continue;
+			
+			Integer capacity = weighedCapacities.get(key);
+			
+			synchronized (series) {
+				if(capacity != null && capacity == series.getTimestampColumn().length) continue;
+			}
+			
+			/* the cache reads the capacity while the series may still grow, the next batch catches up */
+			cache.asMap().replace(key, series, series);
+		}
+	}
+	
+	/*
+	 * Built without holding up ingestion, then caught up with the trades appended meanwhile.
+	 * Rolling up tracked candles is quick, it is done under the ingestion lock so both series
+	 * stand at the same trade.
+	 */
+	private OHLCVSeries createLiveOHLCVSeries(String symbol, LiveTradeStore live, int period) {
+		OHLCVSeries lower = getRollUpSource(symbol, period);
+		
+		if(lower != null) {
+			synchronized (liveCandles) {
+				Integer lowerCount = liveCandles.get(live).get(lower);
+				
+				if(lowerCount != null) {
+					try {
+						OHLCVSeries ohlcv;
+						synchronized (lower) {
+							ohlcv = lower.rollUp(period);
+						}
+						
+						liveCandles.get(live).put(ohlcv, lowerCount);
+						return ohlcv;
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+		
+		int count = live.size();
+		OHLCVSeries ohlcv = createOHLCVSeries(symbol, live, period, count);
+		
+		synchronized (liveCandles) {
+			int size = live.size();
+			
+			addTrades(live, ohlcv, count, size);
+			liveCandles.get(live).put(ohlcv, size);
+		}
+		
+		return ohlcv;
+	}
+	
+	private void addTrades(TradeStore store, OHLCVSeries ohlcv, int from, int to) {
+		synchronized (ohlcv) {
+			try {
+				for(int i = from; i < to; i++) {
+					ohlcv.addTrade(store.getTimestamp(i), store.getPrice(i), store.getVolume(i));
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/* computed on a copy of the candles so ingestion goes on, then merged with what it missed */
+	private <T extends Enum<T>> FieldSeries<T> computeLive(IndicatorFactory<T> factory, OHLCVSeries ohlcv, JsonObject options) {
+		OHLCVSeries candles;
+		synchronized (ohlcv) {
+			candles = ohlcv.copy();
+		}
+		
+		FieldSeries<T> series = factory.compute(candles, options);
+		if(series != null) {
+			mergeTail(factory, series, ohlcv);
+		}
+		
+		return series;
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void mergeTail(IndicatorFactory factory, FieldSeries series, OHLCVSeries ohlcv) {
+		synchronized (ohlcv) {
+			synchronized (series) {
+				factory.merge(series, ohlcv, series.isEmpty() ? 0 : ohlcv.ceilingIndex(series.getLastTimestamp()));
+			}
+		}
+	}
+	
+	/* cached candles are written to snapshots from now on, and built from them */
+	public void setSnapshots(CandleSnapshots snapshots) {
+		this.snapshots = snapshots;
+	}
+	
+	/* builds the candles of every snapshot, returns the number of series loaded */
+	public int loadSnapshots() {
+		if(snapshots == null) return 0;
+		
+		int loaded = 0;
+		
+		for(Map.Entry<String, List<Integer>> entry : snapshots.getPeriods().entrySet()) {
+			for(int period : entry.getValue()) {
+				try {
+					getSeries(entry.getKey(), "OHLCV", period, new JsonObject());
+					loaded++;
+				} catch (IllegalArgumentException e) {
+					logger.warn("Skipping the candles of " + entry.getKey() + ": " + e.getMessage());
+				}
+			}
+		}
+		
+		return loaded;
+	}
+	
+	/*
+	 * Writes the cached candles of every symbol with the number of trades they include, live
+	 * ones are copied under the ingestion lock. Returns the number of snapshots written.
+	 */
+	public int saveSnapshots() {
+		if(snapshots == null) return 0;
+		
+		int written = 0;
+		
+		for(Map.Entry<SeriesKey, FieldSeries<?>> entry : cache.asMap().entrySet()) {
+			SeriesKey key = entry.getKey();
+			if(!key.getIndicator().equals("OHLCV")) continue;
+			
+			OHLCVSeries ohlcv = (OHLCVSeries) entry.getValue();
+			TradeStore store = getTradeStore(key.getSymbol());
+			int count = store.size();
+			
+			if(store instanceof LiveTradeStore) {
+				synchronized (liveCandles) {
+					Map<OHLCVSeries, Integer> candles = liveCandles.get(store);
+					Integer tracked = candles != null ? candles.get(ohlcv) : null;
+					if(tracked == null) continue;
+					
+					count = tracked;
+					synchronized (ohlcv) {
+						ohlcv = ohlcv.copy();
+					}
+				}
+			}
+			
+			try {
+				if(snapshots.save(key.getSymbol(), ohlcv, store, count)) written++;
+			} catch (IOException e) {
+				logger.error("Could not save the candles of " + key, e);
+			}
+		}
+		
+		return written;
+	}
+	
+	public JsonObject getCacheStats() {
+		CacheStats stats = cache.stats();
+		
+		return new JsonObject()
+			.putNumber("size", cache.size())
+			.putNumber("hits", stats.hitCount())
+			.putNumber("misses", stats.missCount())
+			.putNumber("hitRate", stats.hitRate())
+			.putNumber("evictions", stats.evictionCount())
+			.putNumber("averageLoadMillis", stats.averageLoadPenalty() / 1000000);
+	}
+	
+	/* last trade of any loaded store */
 	public int getMaxTime() {
-		return tradeData.get(tradeData.size() - 1).getTimestamp();
+		int maxTime = 0;
+		
+		for(TradeStore store : stores.getLoaded()) {
+			if(store.size() > 0) {
+				maxTime = Math.max(maxTime, store.getTimestamp(store.size() - 1));
+			}
+		}
+		
+		return maxTime;
+	}
+	
+	public int getMaxTime(String symbol) {
+		TradeStore store = getTradeStore(symbol);
+		return store.size() > 0 ? store.getTimestamp(store.size() - 1) : 0;
 	}
 	
 	protected void loadData(String file) {
-		tradeData = new ArrayList<Trade>();
-		
-		try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-		    String line;
-		    while ((line = br.readLine()) != null) {
-		    	String[] tpv = line.split(",");
-		    	int timestamp = Integer.parseInt(tpv[0]);
-		    	double price = Double.parseDouble(tpv[1]);
-		    	double volume = Double.parseDouble(tpv[2]);
-		    	Trade trade = new Trade(timestamp, price, volume); 
-		    	tradeData.add(trade);
-		    }
+		try {
+			tradeData = MappedTradeStore.open(file);
+			stores = new TradeStores(tradeData);
+			
+			logger.info("mapped " + tradeData.size() + " trades from " + file);
 		} catch (IOException e) {
 			e.printStackTrace();
 		} 
 	}
 
-}
+}
\ No newline at end of file
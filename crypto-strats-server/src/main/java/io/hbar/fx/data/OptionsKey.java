@@ -0,0 +1,110 @@
+package io.hbar.fx.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Order independent form of an options object: fields sorted by name at every level and numbers
+ * written the same way whatever their boxed type, so {period: 20, field: "Close"} and
+ * {field: "Close", period: 20.0} give equal keys. Keys compare the whole canonical string.
+ */
+public final class OptionsKey {
+	private final String canonical;
+	private final int hash;
+
+	public OptionsKey(JsonObject options) {
+		StringBuilder sb = new StringBuilder();
+		if (options != null) appendObject(sb, options.toMap());
+
+		canonical = sb.toString();
+		hash = canonical.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) return true;
+		if (!(object instanceof OptionsKey)) return false;
+
+		OptionsKey other = (OptionsKey) object;
+		return hash == other.hash && canonical.equals(other.canonical);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return canonical;
+	}
+
+	private static void appendObject(StringBuilder sb, Map<String, Object> map) {
+		List<String> names = new ArrayList<String>(map.keySet());
+		Collections.sort(names);
+
+		sb.append('{');
+		for (int i = 0; i < names.size(); i++) {
+			if (i > 0) sb.append(',');
+
+			appendString(sb, names.get(i));
+			sb.append(':');
+			appendValue(sb, map.get(names.get(i)));
+		}
+		sb.append('}');
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void appendValue(StringBuilder sb, Object value) {
+		if (value instanceof JsonObject) {
+			appendObject(sb, ((JsonObject) value).toMap());
+		} else if (value instanceof Map) {
+			appendObject(sb, (Map<String, Object>) value);
+		} else if (value instanceof JsonArray) {
+			appendList(sb, ((JsonArray) value).toList());
+		} else if (value instanceof List) {
+			appendList(sb, (List<Object>) value);
+		} else if (value instanceof Number) {
+			appendNumber(sb, (Number) value);
+		} else if (value instanceof String) {
+			appendString(sb, (String) value);
+		} else {
+			sb.append(value);
+		}
+	}
+
+	private static void appendList(StringBuilder sb, List<Object> list) {
+		sb.append('[');
+		for (int i = 0; i < list.size(); i++) {
+			if (i > 0) sb.append(',');
+			appendValue(sb, list.get(i));
+		}
+		sb.append(']');
+	}
+
+	/* integral values print as longs, everything else as a double */
+	private static void appendNumber(StringBuilder sb, Number number) {
+		double value = number.doubleValue();
+
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			sb.append((long) value);
+		} else {
+			sb.append(value);
+		}
+	}
+
+	private static void appendString(StringBuilder sb, String value) {
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') sb.append('\\');
+			sb.append(c);
+		}
+		sb.append('"');
+	}
+}
@@ -0,0 +1,72 @@
+package io.hbar.fx.data;
+
+import io.hbar.fx.ta.IndicatorRegistry;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Immutable cache key of a series, equivalent options give equal keys (see OptionsKey). The
+ * registry resolves indicator names whatever their case, keys hold its canonical name.
+ */
+public final class SeriesKey {
+	private final String symbol;
+	private final String indicator;
+	private final int period;
+	private final OptionsKey options;
+	private final int hash;
+
+	public SeriesKey(String symbol, String indicator, int period, JsonObject options) {
+		this.symbol = symbol;
+		this.indicator = canonicalName(indicator);
+		this.period = period;
+		this.options = new OptionsKey(options);
+
+		int hash = symbol.hashCode();
+		hash = 31 * hash + this.indicator.hashCode();
+		hash = 31 * hash + period;
+		this.hash = 31 * hash + this.options.hashCode();
+	}
+
+	/* the registered name of an indicator, other names (Strategy, Orders...) are kept as is */
+	private static String canonicalName(String indicator) {
+		if (indicator.equalsIgnoreCase("OHLCV")) return "OHLCV";
+
+		return IndicatorRegistry.contains(indicator) ? IndicatorRegistry.get(indicator).getName() : indicator;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public String getIndicator() {
+		return indicator;
+	}
+
+	public int getPeriod() {
+		return period;
+	}
+
+	public OptionsKey getOptions() {
+		return options;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) return true;
+		if (!(object instanceof SeriesKey)) return false;
+
+		SeriesKey other = (SeriesKey) object;
+		return hash == other.hash && period == other.period && symbol.equals(other.symbol) && indicator.equals(other.indicator)
+				&& options.equals(other.options);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return symbol + "/" + indicator + "/" + period + "/" + options;
+	}
+}
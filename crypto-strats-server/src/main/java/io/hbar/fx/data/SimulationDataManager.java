@@ -2,12 +2,16 @@ package io.hbar.fx.data;
 
 import io.hbar.fx.data.series.FieldSeries;
 import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.execution.ExecutionModel;
+import io.hbar.fx.execution.ExecutionSimulator;
 import io.hbar.fx.strategy.Strategy;
-import io.hbar.fx.ta.TaLib;
+import io.hbar.fx.strategy.VectorizedStrategy;
+import io.hbar.fx.ta.IndicatorRegistry;
+import io.hbar.fx.ta.incremental.IncrementalIndicator;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +19,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vertx.java.core.json.JsonObject;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public class SimulationDataManager extends DataManager {
 
 	final static Logger logger = LogManager.getLogger(SimulationDataManager.class.getName());
@@ -23,87 +30,251 @@ public class SimulationDataManager extends DataManager {
 	protected int endTime;
 
 	protected Strategy strategy;
+	protected List<Strategy> strategies;
+	protected CandleStore candles;
+
+	/* index of the next trade to replay and of the last one replayed (-1 before the first) */
+	protected int tradeIndex = 0;
+	protected int lastTradeIndex = -1;
+
+	protected List<OHLCVSeries> candleSeries = new ArrayList<OHLCVSeries>();
+	protected List<IncrementalIndicator<?>> indicators = new ArrayList<IncrementalIndicator<?>>();
+
+	/* indicators subscribed strategies read, updated on each trade while the others wait for the end of the batch */
+	protected List<IncrementalIndicator<?>> subscribedIndicators = new ArrayList<IncrementalIndicator<?>>();
 
-	protected Trade lastTrade = null;
+	/* what each strategy subscribed to when it registered, strategies without news are skipped */
+	protected Map<OHLCVSeries, List<Strategy>> candleListeners = new HashMap<OHLCVSeries, List<Strategy>>();
+	protected List<IndicatorListeners> indicatorListeners = new ArrayList<IndicatorListeners>();
+	protected List<Strategy> tradeListeners = new ArrayList<Strategy>();
 
-	protected Iterator<Trade> tradeIterator;
+	/* one per strategy, strategies replayed side by side do not compete for liquidity */
+	protected List<ExecutionSimulator> executions = new ArrayList<ExecutionSimulator>();
 
 	public SimulationDataManager(String dataFile, Strategy strategy, int startTime, int endTime) {
 		super(dataFile);
-		
-		tradeIterator = tradeData.iterator();
+		init(new CandleStore(tradeData, startTime, endTime), Collections.singletonList(strategy));
+	}
+
+	/* runs on a trade history and warm up candles shared with other simulations */
+	public SimulationDataManager(CandleStore candles, Strategy strategy) {
+		this(candles, Collections.singletonList(strategy));
+	}
+
+	/* strategies replayed side by side share every series, the first one is served as "Strategy" */
+	public SimulationDataManager(CandleStore candles, List<Strategy> strategies) {
+		super(candles.getTradeStore());
+		init(candles, strategies);
+	}
+
+	/* every series is updated on each tick, so nothing can be evicted */
+	@Override
+	protected Cache<SeriesKey, FieldSeries<?>> createCache(long cacheSize) {
+		return CacheBuilder.newBuilder().recordStats().build();
+	}
+
+	private void init(CandleStore candles, List<Strategy> strategies) {
+		this.candles = candles;
+		this.startTime = candles.getStartTime();
+		this.endTime = candles.getEndTime();
+
+		/* the warm up window is history, replay starts after it even before the first series */
+		tradeIndex = candles.getEndIndex();
+
+		this.strategies = strategies;
+		this.strategy = strategies.get(0);
 
-		this.startTime = startTime;
-		this.endTime = endTime;
-		
-		this.strategy = strategy;
-		this.strategy.setDataManager(this);
+		for (Strategy strategy : strategies) {
+			ExecutionSimulator execution = new ExecutionSimulator(strategy, ExecutionModel.DEFAULT);
+			strategy.setExecution(execution);
+			executions.add(execution);
+
+			strategy.setDataManager(this);
+			addListener(strategy);
+		}
+	}
+
+	/* fees, slippage and latency of every strategy's orders from now on */
+	public void setExecutionModel(ExecutionModel model) {
+		for (ExecutionSimulator execution : executions) {
+			execution.setModel(model);
+		}
 	}
 
+	private void addListener(Strategy strategy) {
+		for (OHLCVSeries ohlcv : strategy.getCandleSubscriptions()) {
+			if (!candleListeners.containsKey(ohlcv)) {
+				candleListeners.put(ohlcv, new ArrayList<Strategy>());
+			}
+			candleListeners.get(ohlcv).add(strategy);
+		}
+
+		for (FieldSeries<?> series : strategy.getIndicatorSubscriptions()) {
+			IndicatorListeners listeners = null;
+
+			for (IndicatorListeners candidate : indicatorListeners) {
+				if (candidate.series == series) listeners = candidate;
+			}
+			if (listeners == null) {
+				listeners = new IndicatorListeners(series);
+				indicatorListeners.add(listeners);
+			}
+
+			listeners.strategies.add(strategy);
+
+			for (IncrementalIndicator<?> indicator : indicators) {
+				if (indicator.getSeries() == series && !subscribedIndicators.contains(indicator)) {
+					subscribedIndicators.add(indicator);
+				}
+			}
+		}
+
+		if (strategy.isSubscribedToTrades()) {
+			tradeListeners.add(strategy);
+		}
+	}
+
+	/* replays the next trades, false if the history ran out before all of them */
 	public boolean tick(int iterations) {
+		boolean complete = (long) tradeIndex + iterations <= tradeData.size();
+		replay((int) Math.min((long) tradeIndex + Math.max(iterations, 0), tradeData.size()));
+
+		return complete;
+	}
+
+	/* replays every trade up to and including the timestamp in one batch, false once the history ran out */
+	public boolean advanceTo(int timestamp) {
+		replay(Math.max(tradeIndex, tradeData.higherIndex(timestamp)));
+
+		return tradeIndex < tradeData.size();
+	}
+
+	/* moves the clock count candles of the period forward, the last one opened by the trades at its start */
+	public boolean advanceCandles(int period, int count) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Invalid period " + period);
+		}
+
+		int candle = (getMaxTime() / period) * period;
+
+		return advanceTo((int) Math.min((long) candle + (long) count * period, Integer.MAX_VALUE));
+	}
+
+	/*
+	 * Vectorized run on a candle store whose window reaches the end of the history: every series
+	 * was complete when the strategies registered, so instead of replaying the trades each
+	 * strategy evaluates its signals over them and its orders fill against the trade history.
+	 * Signals start at the trade a replay of the warm up window would start at. Throws
+	 * IllegalArgumentException before evaluating any if a strategy cannot be vectorized.
+	 */
+	public void evaluate(int startIndex) {
 		long t = System.currentTimeMillis();
-		
-		for (int i = 0; i < iterations; i++) {
-			if (tradeIterator.hasNext()) {
-				lastTrade = tradeIterator.next();
-				
-				for (OHLCVSeries ohlcv : getAllOHLCVSeries()) {
-					try {
-						if(ohlcv.isNewCandle(lastTrade.getTimestamp())) {
-							strategy.candleEnd(ohlcv.getPeriod());
-						}
-						ohlcv.addTrade(lastTrade);
-					} catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
 
-				for (String symbol : cache.keySet()) {
-					Map<String, Map<Integer, Map<Integer, FieldSeries<?>>>> indicatorCache = cache.get(symbol);
-					for (String indicator : indicatorCache.keySet()) {
-						Map<Integer, Map<Integer, FieldSeries<?>>> periodCache = indicatorCache.get(indicator);
-						for (Integer period : periodCache.keySet()) {
-							Map<Integer, FieldSeries<?>> hashCache = periodCache.get(period);
-							for (Integer hash : hashCache.keySet()) {
-								FieldSeries<?> series = hashCache.get(hash);
-								if (indicator.equals("OHLCV") || series == null) continue;
-								try {
-									cache.get(symbol).get(indicator).get(period).put(hash, (FieldSeries<?>) TaLib.class.getMethod(indicator.toLowerCase(), OHLCVSeries.class, JsonObject.class).invoke(null, (OHLCVSeries) getSeries(symbol, "OHLCV", period, new JsonObject()), series.getOptions()));
-								} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException
-										| SecurityException e) {
-									e.printStackTrace();
-								}
+		for (Strategy strategy : strategies) {
+			if (!(strategy instanceof VectorizedStrategy)) {
+				throw new IllegalArgumentException(strategy.getClass().getName() + " cannot be vectorized");
+			}
+		}
+
+		for (int i = 0; i < strategies.size(); i++) {
+			Strategy strategy = strategies.get(i);
+
+			ExecutionSimulator execution = executions.get(i);
+
+			execution.setTradeStore(tradeData);
+			((VectorizedStrategy) strategy).evaluate(startIndex);
+
+			/* orders still open fill on what is left of the history */
+			if (tradeData.size() > 0) {
+				execution.seek(tradeData.size() - 1);
+			}
+
+			strategy.getPosition().mark(getLastPrice());
+		}
+
+		logger.debug("evaluated " + strategies.size() + " strategies in " + (System.currentTimeMillis() - t) + " ms");
+	}
+
+	/*
+	 * Replays the trades before the end index. Strategies listening to trades, candles or indicators
+	 * are called back on each trade as it happens, with the positions and the indicators they
+	 * subscribed to up to date. Candles and orders follow every trade, the other indicators only
+	 * catch up once at the end of the batch.
+	 */
+	private void replay(int end) {
+		long t = System.currentTimeMillis();
+		int first = tradeIndex;
+
+		boolean callbacks = !tradeListeners.isEmpty() || !candleListeners.isEmpty() || !indicatorListeners.isEmpty();
+
+		while (tradeIndex < end) {
+			lastTradeIndex = tradeIndex++;
+			int timestamp = tradeData.getTimestamp(lastTradeIndex);
+			double price = tradeData.getPrice(lastTradeIndex);
+			double volume = tradeData.getVolume(lastTradeIndex);
+
+			/* orders placed on earlier trades fill first */
+			for (int j = 0; j < executions.size(); j++) {
+				executions.get(j).onTrade(timestamp, price, volume);
+			}
+
+			/* series created by the strategies during this trade already hold it */
+			int count = candleSeries.size();
+
+			for (int j = 0; j < count; j++) {
+				OHLCVSeries ohlcv = candleSeries.get(j);
+
+				try {
+					if (callbacks && ohlcv.isNewCandle(timestamp)) {
+						List<Strategy> listeners = candleListeners.get(ohlcv);
+
+						if (listeners != null) {
+							for (Strategy strategy : listeners) {
+								strategy.onCandleClose(ohlcv.getPeriod());
 							}
 						}
 					}
+					ohlcv.addTrade(timestamp, price, volume);
+				} catch (Exception e) {
+					e.printStackTrace();
 				}
-				
-				strategy.tick();
-				
-			} else {
-				return false;
 			}
-		}
-		
-		logger.info("tick time: " + (System.currentTimeMillis() - t));
-		
-		return true;
-	}
 
-	private List<OHLCVSeries> getAllOHLCVSeries() {
-		List<OHLCVSeries> seriesList = new ArrayList<OHLCVSeries>();
+			if (callbacks) {
+				update(subscribedIndicators, price);
+
+				for (IndicatorListeners listeners : indicatorListeners) {
+					int size = listeners.series.size();
+					if (size == listeners.size) continue;
 
-		for (String symbol : cache.keySet()) {
-			Map<Integer, Map<Integer, FieldSeries<?>>> periodCache = cache.get(symbol).get("OHLCV");
-			for (Integer period : periodCache.keySet()) {
-				Map<Integer, FieldSeries<?>> hashCache = periodCache.get(period);
-				for (Integer hash : hashCache.keySet()) {
-					seriesList.add((OHLCVSeries) hashCache.get(hash));
+					listeners.size = size;
+					for (Strategy strategy : listeners.strategies) {
+						strategy.onIndicatorUpdate(listeners.series);
+					}
+				}
+
+				for (Strategy strategy : tradeListeners) {
+					strategy.onTrade(timestamp, price, volume);
 				}
 			}
 		}
 
-		return seriesList;
+		if (tradeIndex > first) {
+			update(indicators, tradeData.getPrice(lastTradeIndex));
+		}
+
+		logger.debug("replayed " + (tradeIndex - first) + " trades in " + (System.currentTimeMillis() - t) + " ms");
+	}
+
+	/* brings the indicators up to the candles and marks the positions at the price */
+	private void update(List<IncrementalIndicator<?>> indicators, double price) {
+		for (IncrementalIndicator<?> indicator : indicators) {
+			indicator.update();
+		}
+
+		for (Strategy strategy : strategies) {
+			strategy.getPosition().mark(price);
+		}
 	}
 
 	@Override
@@ -111,38 +282,65 @@ public class SimulationDataManager extends DataManager {
 		if (indicator.indexOf("Strategy") >= 0) {
 			return strategy.getSeries();
 		}
+		if (indicator.equals("Orders")) {
+			return strategy.getExecution().getSeries();
+		}
 
 		return super.getSeries(symbol, indicator, period, options);
 	}
 
 	@Override
-	public OHLCVSeries createOHLCVSeries(int period) {
-		OHLCVSeries ohlcv = new OHLCVSeries(period);
+	public FieldSeries<?> getCachedSeries(String symbol, String indicator, int period, JsonObject options) {
+		if (indicator.indexOf("Strategy") >= 0) {
+			return strategy.getSeries();
+		}
+		if (indicator.equals("Orders")) {
+			return strategy.getExecution().getSeries();
+		}
 
-		try {
-			if (lastTrade == null) {
-				Trade trade = null;
+		return super.getCachedSeries(symbol, indicator, period, options);
+	}
 
-				while (tradeIterator.hasNext() && (trade = tradeIterator.next()).getTimestamp() <= endTime) {
-					if (trade.getTimestamp() < startTime)
-						continue;
-					ohlcv.addTrade(trade);
-				}
+	@Override
+	protected FieldSeries<?> createSeries(String symbol, String indicator, int period, JsonObject options) {
+		if (indicator.equals("OHLCV")) {
+			OHLCVSeries ohlcv = (OHLCVSeries) super.createSeries(symbol, indicator, period, options);
+			candleSeries.add(ohlcv);
 
-				lastTrade = trade;
+			return ohlcv;
+		}
+
+		IncrementalIndicator<?> incremental = IndicatorRegistry.get(indicator).createIncremental((OHLCVSeries) getSeries(symbol, "OHLCV", period, new JsonObject()), options);
+		incremental.update();
+		indicators.add(incremental);
+
+		return incremental.getSeries();
+	}
+
+	@Override
+	public OHLCVSeries createOHLCVSeries(String symbol, int period) {
+		OHLCVSeries ohlcv, lower;
+
+		try {
+			if (lastTradeIndex < 0) {
+				/* the first series counts the warm up window [startTime, endTime] as replayed */
+				ohlcv = candles.copyCandles(period);
+
+				lastTradeIndex = tradeIndex - 1;
+			} else if ((lower = getRollUpSource(symbol, period)) != null) {
+				/* every replayed series stands at the last trade, so its candles roll up as they are */
+				ohlcv = lower.rollUp(period);
 			} else {
-				Trade trade = null;
-				Iterator<Trade> tIt = tradeData.iterator();
-
-				do {
-					trade = tIt.next();
-					if (trade.getTimestamp() < startTime)
-						continue;
-					ohlcv.addTrade(trade);
-				} while (trade != lastTrade);
+				/* only the trades replayed since the warm up window are missing */
+				ohlcv = candles.copyCandles(period);
+
+				for (int i = candles.getEndIndex(); i <= lastTradeIndex; i++) {
+					addTrade(ohlcv, i);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
+			ohlcv = new OHLCVSeries(period);
 		}
 
 		return ohlcv;
@@ -150,11 +348,44 @@ public class SimulationDataManager extends DataManager {
 	
 	@Override
 	public int getMaxTime() {
-		if(lastTrade == null) {
+		if(lastTradeIndex < 0) {
 			return this.endTime;
 		} else {
-			return lastTrade.getTimestamp();
+			return tradeData.getTimestamp(lastTradeIndex);
 		}
 	}
 
+	@Override
+	public int getMaxTime(String symbol) {
+		return getMaxTime();
+	}
+
+	/* price of the last replayed trade, NaN before the first */
+	public double getLastPrice() {
+		return lastTradeIndex < 0 ? Double.NaN : tradeData.getPrice(lastTradeIndex);
+	}
+
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	public List<Strategy> getStrategies() {
+		return strategies;
+	}
+
+	private void addTrade(OHLCVSeries ohlcv, int index) throws Exception {
+		ohlcv.addTrade(tradeData.getTimestamp(index), tradeData.getPrice(index), tradeData.getVolume(index));
+	}
+
+	/* strategies waiting for an indicator to get a row, and the rows it had last time */
+	protected static class IndicatorListeners {
+		FieldSeries<?> series;
+		int size;
+		List<Strategy> strategies = new ArrayList<Strategy>();
+
+		IndicatorListeners(FieldSeries<?> series) {
+			this.series = series;
+			this.size = series.size();
+		}
+	}
 }
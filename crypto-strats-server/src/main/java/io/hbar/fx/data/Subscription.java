@@ -0,0 +1,104 @@
+package io.hbar.fx.data;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.protobuf.serializer.ProtoBufSerializer;
+
+import java.util.Arrays;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Clients following one series. They all listen on the same address, so a change is encoded
+ * once and published to every one of them. The subscription remembers the last row it sent:
+ * a delta is that row again when its values changed (open candle, indicator tail) plus any row
+ * added after it, whichever instance of the series it is given. Subscribers renew before
+ * expires or the subscription is dropped.
+ */
+public class Subscription {
+	private SeriesKey key;
+	private JsonObject options;
+	private String address;
+	private long expires;
+
+	private int lastTimestamp;
+	private double[] lastRow;
+
+	/* the series was evicted and is being computed again */
+	private boolean recomputing = false;
+
+	public Subscription(SeriesKey key, JsonObject options, String address) {
+		this.key = key;
+		this.options = options;
+		this.address = address;
+	}
+
+	/* rows sent from here on are the ones changed after the series' current last row */
+	public void start(FieldSeries<?> series) {
+		synchronized (series) {
+			if (!series.isEmpty()) {
+				lastTimestamp = series.getLastTimestamp();
+				lastRow = getRow(series, series.size() - 1);
+			}
+		}
+	}
+
+	/* encoded <Type>Series message of the changed rows, null when nothing changed */
+	public byte[] getDelta(FieldSeries<?> series) {
+		synchronized (series) {
+			if (series.isEmpty()) return null;
+
+			int index = lastRow == null ? 0 : series.ceilingIndex(lastTimestamp);
+			int lastIndex = series.size() - 1;
+
+			if (index > lastIndex) return null;
+
+			if (index == lastIndex && series.getTimestampAt(index) == lastTimestamp && Arrays.equals(lastRow, getRow(series, index))) {
+				return null;
+			}
+
+			lastTimestamp = series.getLastTimestamp();
+			lastRow = getRow(series, lastIndex);
+
+			return ProtoBufSerializer.serializeRows(series, index, lastIndex + 1);
+		}
+	}
+
+	public void renew(long expires) {
+		this.expires = expires;
+	}
+
+	public boolean isExpired(long now) {
+		return now > expires;
+	}
+
+	public boolean isRecomputing() {
+		return recomputing;
+	}
+
+	public void setRecomputing(boolean recomputing) {
+		this.recomputing = recomputing;
+	}
+
+	public SeriesKey getKey() {
+		return key;
+	}
+
+	public JsonObject getOptions() {
+		return options;
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	private static <T extends Enum<T>> double[] getRow(FieldSeries<T> series, int index) {
+		T[] fields = series.getFields();
+
+		double[] row = new double[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			row[i] = series.getValueAt(index, fields[i]);
+		}
+
+		return row;
+	}
+}
@@ -0,0 +1,17 @@
+package io.hbar.fx.data.live;
+
+import io.hbar.fx.data.Trade;
+
+/* trade as reported by a source, the id tells apart trades within the same second */
+public class LiveTrade extends Trade {
+	private String id;
+
+	public LiveTrade(String id, int timestamp, double price, double volume) {
+		super(timestamp, price, volume);
+		this.id = id;
+	}
+
+	public String getId() {
+		return id;
+	}
+}
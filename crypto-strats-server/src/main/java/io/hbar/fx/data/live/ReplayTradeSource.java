@@ -0,0 +1,59 @@
+package io.hbar.fx.data.live;
+
+import io.hbar.fx.data.store.MappedTradeStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Stand in for an exchange: replays a trade file as if its trades were happening now. The
+ * first poll starts the clock, trades are shifted so the first one lands at that time and come
+ * out speed times faster than they were recorded. Every trade is handed out once.
+ */
+public class ReplayTradeSource extends TradeSource {
+	private String file;
+	private MappedTradeStore trades;
+	private double speed;
+
+	private int index;
+	private long startMillis = -1;
+	private int firstTimestamp;
+
+	public ReplayTradeSource(String file, int startTime, double speed) throws IOException {
+		this.file = file;
+		this.trades = MappedTradeStore.open(file);
+		this.speed = speed;
+		this.index = trades.ceilingIndex(startTime);
+	}
+
+	@Override
+	public List<LiveTrade> poll() {
+		List<LiveTrade> due = new ArrayList<LiveTrade>();
+		if (index >= trades.size()) return due;
+
+		long now = System.currentTimeMillis();
+
+		if (startMillis < 0) {
+			startMillis = now;
+			firstTimestamp = trades.getTimestamp(index);
+		}
+
+		/* seconds of the recording replayed so far */
+		double replayed = (now - startMillis) / 1000.0 * speed;
+
+		while (index < trades.size() && trades.getTimestamp(index) - firstTimestamp <= replayed) {
+			int elapsed = trades.getTimestamp(index) - firstTimestamp;
+
+			due.add(new LiveTrade(Integer.toString(index), (int) (startMillis / 1000 + elapsed / speed), trades.getPrice(index), trades.getVolume(index)));
+			index++;
+		}
+
+		return due;
+	}
+
+	@Override
+	public String getName() {
+		return "replay of " + file;
+	}
+}
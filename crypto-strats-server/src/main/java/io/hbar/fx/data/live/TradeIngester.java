@@ -0,0 +1,133 @@
+package io.hbar.fx.data.live;
+
+import io.hbar.fx.data.DataManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vertx.java.core.json.JsonObject;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/*
+ * Polls a trade source on its own thread and appends what is new to one symbol of a DataManager. A trade is
+ * new when it is later than the last one appended, or in the same second with an id not seen
+ * yet. Sources without ids are told apart by price and volume, identical trades in one second
+ * count once. Trades older than that are dropped since the store only grows forward. Until the
+ * first trade is appended nothing is known of the ids in the store's last second, so that second
+ * is skipped.
+ */
+public class TradeIngester {
+	final static Logger logger = LogManager.getLogger(TradeIngester.class.getName());
+
+	private TradeSource source;
+	private DataManager dataManager;
+	private String symbol;
+	private long pollInterval;
+
+	private ScheduledExecutorService scheduler;
+
+	private int lastTimestamp;
+	private Set<String> lastKeys;
+
+	private volatile long appended = 0;
+	private volatile long duplicates = 0;
+	private volatile long late = 0;
+	private volatile long failedPolls = 0;
+	private volatile long lastPollMillis = 0;
+
+	public TradeIngester(TradeSource source, DataManager dataManager, String symbol, long pollInterval) {
+		this.source = source;
+		this.dataManager = dataManager;
+		this.symbol = symbol;
+		this.pollInterval = pollInterval;
+	}
+
+	public void start() {
+		dataManager.enableLiveUpdates(symbol);
+		lastTimestamp = dataManager.getMaxTime(symbol);
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ingest-%d").setDaemon(true).build());
+
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				poll();
+			}
+		}, 0, pollInterval, TimeUnit.MILLISECONDS);
+
+		logger.info("ingesting " + symbol + " trades from " + source.getName() + " every " + pollInterval + "ms");
+	}
+
+	public void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+		source.close();
+	}
+
+	private void poll() {
+		long t = System.currentTimeMillis();
+
+		try {
+			List<LiveTrade> trades = filter(source.poll());
+
+			if (!trades.isEmpty()) {
+				dataManager.addTrades(symbol, trades);
+				appended += trades.size();
+			}
+		} catch (Exception e) {
+			failedPolls++;
+			logger.warn("Polling " + source.getName() + " failed: " + e.getMessage());
+		}
+
+		lastPollMillis = System.currentTimeMillis() - t;
+	}
+
+	private List<LiveTrade> filter(List<LiveTrade> trades) {
+		List<LiveTrade> fresh = new ArrayList<LiveTrade>();
+
+		for (LiveTrade trade : trades) {
+			int timestamp = trade.getTimestamp();
+
+			if (timestamp > lastTimestamp) {
+				lastTimestamp = timestamp;
+				lastKeys = new HashSet<String>();
+				lastKeys.add(getKey(trade));
+			} else if (timestamp < lastTimestamp) {
+				late++;
+				continue;
+			} else if (lastKeys == null || !lastKeys.add(getKey(trade))) {
+				duplicates++;
+				continue;
+			}
+
+			fresh.add(trade);
+		}
+
+		return fresh;
+	}
+
+	private static String getKey(LiveTrade trade) {
+		return trade.getId() != null ? trade.getId() : trade.getPrice() + "x" + trade.getVolume();
+	}
+
+	public JsonObject getStats() {
+		return new JsonObject()
+			.putString("symbol", symbol)
+			.putString("source", source.getName())
+			.putNumber("appended", appended)
+			.putNumber("duplicates", duplicates)
+			.putNumber("late", late)
+			.putNumber("failedPolls", failedPolls)
+			.putNumber("lastPollMillis", lastPollMillis)
+			.putNumber("lastTimestamp", dataManager.getMaxTime(symbol));
+	}
+}
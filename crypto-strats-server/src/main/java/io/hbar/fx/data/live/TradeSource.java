@@ -0,0 +1,20 @@
+package io.hbar.fx.data.live;
+
+import java.io.IOException;
+import java.util.List;
+
+/*
+ * Where live trades come from. poll returns the trades the source currently knows of, in time
+ * order, and may repeat trades from earlier polls: TradeIngester drops them.
+ */
+public abstract class TradeSource {
+
+	public abstract List<LiveTrade> poll() throws IOException;
+
+	public void close() {
+	}
+
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,52 @@
+package io.hbar.fx.data.live;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.xeiam.xchange.ExchangeFactory;
+import com.xeiam.xchange.currency.CurrencyPair;
+import com.xeiam.xchange.dto.marketdata.Trade;
+import com.xeiam.xchange.service.polling.PollingMarketDataService;
+
+/* recent public trades of one currency pair, polled through an XChange exchange adapter */
+public class XChangeTradeSource extends TradeSource {
+	private String exchangeClass;
+	private CurrencyPair currencyPair;
+	private PollingMarketDataService marketData;
+
+	/* exchangeClass like com.xeiam.xchange.bitfinex.v1.BitfinexExchange */
+	public XChangeTradeSource(String exchangeClass, String base, String counter) {
+		this.exchangeClass = exchangeClass;
+		this.currencyPair = new CurrencyPair(base, counter);
+		this.marketData = ExchangeFactory.INSTANCE.createExchange(exchangeClass).getPollingMarketDataService();
+	}
+
+	@Override
+	public List<LiveTrade> poll() throws IOException {
+		List<Trade> trades = marketData.getTrades(currencyPair).getTrades();
+		List<LiveTrade> liveTrades = new ArrayList<LiveTrade>(trades.size());
+
+		for (Trade trade : trades) {
+			liveTrades.add(new LiveTrade(trade.getId(), (int) (trade.getTimestamp().getTime() / 1000), trade.getPrice().doubleValue(), trade
+					.getTradableAmount().doubleValue()));
+		}
+
+		/* some exchanges list the newest trade first */
+		Collections.sort(liveTrades, new Comparator<LiveTrade>() {
+			@Override
+			public int compare(LiveTrade a, LiveTrade b) {
+				return Integer.compare(a.getTimestamp(), b.getTimestamp());
+			}
+		});
+
+		return liveTrades;
+	}
+
+	@Override
+	public String getName() {
+		return exchangeClass.substring(exchangeClass.lastIndexOf('.') + 1) + " " + currencyPair;
+	}
+}
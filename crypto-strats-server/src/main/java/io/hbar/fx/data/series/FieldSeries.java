@@ -2,26 +2,42 @@ package io.hbar.fx.data.series;
 
 import io.hbar.protobuf.serializer.ProtoBufSerializer;
 
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.SortedSet;
 
 import org.vertx.java.core.json.JsonObject;
 
-import com.google.common.collect.Table;
-import com.google.common.collect.TreeBasedTable;
-import com.google.common.primitives.Doubles;
-import com.google.common.primitives.Ints;
-
+/*
+ * Columnar series: a sorted timestamp column plus one double column per enum field. The
+ * backing arrays grow geometrically and are handed out as is by getTimestampColumn and
+ * getColumn, only the first size() entries are valid.
+ */
 public class FieldSeries<T extends Enum<T>> {
-	public Table<Integer, T, Double> table = TreeBasedTable.create();
+	private final static int DEFAULT_CAPACITY = 16;
+
+	protected int[] timestamps;
+	protected double[][] columns;
+	protected int size = 0;
+
+	protected Class<T> type;
 	protected String typeString;
 	protected T[] fields;
 	protected JsonObject options;
 
 	public FieldSeries(Class<T> type, JsonObject options) {
+		this(type, options, DEFAULT_CAPACITY);
+	}
+
+	public FieldSeries(Class<T> type, JsonObject options, int capacity) {
+		this.type = type;
 		this.typeString = type.getSimpleName();
 		this.fields = type.getEnumConstants();
 		this.options = options;
+
+		capacity = Math.max(capacity, 1);
+		this.timestamps = new int[capacity];
+		this.columns = new double[fields.length][capacity];
 	}
 
 	public void addRow(int timestamp, double... values) throws Exception {
@@ -33,13 +49,27 @@ public class FieldSeries<T extends Enum<T>> {
 			throw new Exception("Arguments don't match fields");
 		}
 
-		for (int i = 0; i < fields.length; i++) {
-			table.put(timestamp, fields[i], values[i]);
+		int index;
+
+		if (size == 0 || timestamp > timestamps[size - 1]) {
+			index = size;
+			insertRow(index, timestamp);
+		} else {
+			index = indexOf(timestamp);
+			if (index < 0) {
+				index = -(index + 1);
+				insertRow(index, timestamp);
+			}
+		}
+
+		for (int i = 0; i < values.length; i++) {
+			columns[i][index] = values[i];
 		}
 	}
-	
+
 	public Map<T, Double> getRow(int timestamp) {
-		return table.row(timestamp);
+		int index = indexOf(timestamp);
+		return index >= 0 ? getRowAt(index) : new EnumMap<T, Double>(type);
 	}
 
 	public byte[] serialize(int startTime, int endTime) {
@@ -47,44 +77,129 @@ public class FieldSeries<T extends Enum<T>> {
 	}
 
 	public double[] getSeries(T field) {
-		return Doubles.toArray(table.column(field).values());
+		return Arrays.copyOf(columns[field.ordinal()], size);
 	}
 
 	public int[] getTimestamps() {
-		return Ints.toArray(table.rowKeySet());
+		return Arrays.copyOf(timestamps, size);
+	}
+
+	public double[] getColumn(T field) {
+		return columns[field.ordinal()];
+	}
+
+	public int[] getTimestampColumn() {
+		return timestamps;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/* binary search, negative (-(insertion point) - 1) when the timestamp is missing */
+	public int indexOf(int timestamp) {
+		return Arrays.binarySearch(timestamps, 0, size, timestamp);
 	}
-	
-	public SortedSet<Integer> getTimestampSet() {
-		return (SortedSet<Integer>) table.rowKeySet();
+
+	/* index of the first row at or after the timestamp, size() if there is none */
+	public int ceilingIndex(int timestamp) {
+		int index = indexOf(timestamp);
+		return index >= 0 ? index : -(index + 1);
+	}
+
+	public int getTimestampAt(int index) {
+		return timestamps[index];
 	}
-	
+
+	public double getValueAt(int index, T field) {
+		return columns[field.ordinal()][index];
+	}
+
 	public int getLastTimestamp() {
-		int[] timestamps = getTimestamps();
-		return timestamps[timestamps.length - 1];
+		return timestamps[size - 1];
 	}
-	
+
 	public int getPreviousTimestamp() {
-		int[] timestamps = getTimestamps();
-		return timestamps[timestamps.length - 2];
+		return timestamps[size - 2];
 	}
-	
+
+	public double getLastValue(T field) {
+		return columns[field.ordinal()][size - 1];
+	}
+
 	public T[] getFields() {
 		return fields;
 	}
-	
+
 	public double getValue(int timestamp, T field) {
-		return table.get(timestamp, field);
+		int index = indexOf(timestamp);
+		return index >= 0 ? columns[field.ordinal()][index] : Double.NaN;
 	}
-	
+
+	public Class<T> getType() {
+		return type;
+	}
+
 	public String getTypeString() {
 		return typeString;
 	}
-	
+
 	public JsonObject getOptions() {
 		return options;
 	}
-	
+
 	public String toString() {
-		return table.toString();
+		StringBuilder sb = new StringBuilder("{");
+
+		for (int index = 0; index < size; index++) {
+			if (index > 0) sb.append(", ");
+			sb.append(timestamps[index]).append("=").append(getRowAt(index));
+		}
+
+		return sb.append("}").toString();
+	}
+
+	private Map<T, Double> getRowAt(int index) {
+		Map<T, Double> row = new EnumMap<T, Double>(type);
+		for (int i = 0; i < fields.length; i++) {
+			row.put(fields[i], columns[i][index]);
+		}
+		return row;
+	}
+
+	protected void copyRows(FieldSeries<T> other) {
+		int capacity = Math.max(other.size, 1);
+
+		timestamps = Arrays.copyOf(other.timestamps, capacity);
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = Arrays.copyOf(other.columns[i], capacity);
+		}
+		size = other.size;
+	}
+
+	/* shifts the rows from index on, the new row's values are left to the caller */
+	protected void insertRow(int index, int timestamp) {
+		if (size == timestamps.length) {
+			int capacity = timestamps.length + (timestamps.length >> 1) + 1;
+
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = Arrays.copyOf(columns[i], capacity);
+			}
+		}
+
+		if (index < size) {
+			System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+			for (int i = 0; i < columns.length; i++) {
+				System.arraycopy(columns[i], index, columns[i], index + 1, size - index);
+			}
+		}
+
+		timestamps[index] = timestamp;
+		size++;
 	}
 }
@@ -3,8 +3,6 @@ package io.hbar.fx.data.series;
 import io.hbar.fx.data.Trade;
 import io.hbar.fx.data.series.types.OHLCV;
 
-import java.util.Map;
-
 import org.vertx.java.core.json.JsonObject;
 
 public class OHLCVSeries extends FieldSeries<OHLCV> {
@@ -16,32 +14,108 @@ public class OHLCVSeries extends FieldSeries<OHLCV> {
 		this.period = period;
 	}
 
+	public OHLCVSeries(int period, int capacity) {
+		super(OHLCV.class, new JsonObject(), capacity);
+		this.period = period;
+	}
+
 	public void addTrade(Trade trade) throws Exception {
-		int timestamp = ((int) (trade.getTimestamp() / period)) * period;
-		double price = trade.getPrice();
-		double volume = trade.getVolume();
-		
-		if(table.containsRow(timestamp)) {
-			Map<OHLCV, Double> row = table.row(timestamp);
-
-			double high = Math.max(row.get(OHLCV.High), price);
-			double low = Math.min(row.get(OHLCV.Low), price);
-
-			row.put(OHLCV.High, high);
-			row.put(OHLCV.Low, low);
-			row.put(OHLCV.Close, price);
-			row.put(OHLCV.Volume, row.get(OHLCV.Volume) + volume);
+		addTrade(trade.getTimestamp(), trade.getPrice(), trade.getVolume());
+	}
+
+	/*
+	 * Trades of the open candle, the last one, are merged in place without a lookup. A trade
+	 * opening a candle appends it to the columns, older ones are looked up.
+	 */
+	public void addTrade(int tradeTimestamp, double price, double volume) throws Exception {
+		int index;
+
+		if (size > 0 && tradeTimestamp >= timestamps[size - 1] && tradeTimestamp - timestamps[size - 1] < period) {
+			index = size - 1;
 		} else {
-			addRow(timestamp, price, price, price, price, volume);
+			int timestamp = ((int) (tradeTimestamp / period)) * period;
+
+			index = (size == 0 || timestamp > timestamps[size - 1]) ? -(size + 1) : indexOf(timestamp);
+
+			if (index < 0) {
+				index = -(index + 1);
+				insertRow(index, timestamp);
+
+				columns[OHLCV.Open.ordinal()][index] = price;
+				columns[OHLCV.High.ordinal()][index] = price;
+				columns[OHLCV.Low.ordinal()][index] = price;
+				columns[OHLCV.Close.ordinal()][index] = price;
+				columns[OHLCV.Volume.ordinal()][index] = volume;
+				return;
+			}
 		}
+
+		double[] high = columns[OHLCV.High.ordinal()];
+		double[] low = columns[OHLCV.Low.ordinal()];
+
+		high[index] = Math.max(high[index], price);
+		low[index] = Math.min(low[index], price);
+		columns[OHLCV.Close.ordinal()][index] = price;
+		columns[OHLCV.Volume.ordinal()][index] += volume;
 	}
 
+	/* true when the trade opens a candle after the open one, or a missing older one */
 	public boolean isNewCandle(int timestamp) {
-		return table.size() > 0 && !table.containsRow(((int) (timestamp / period)) * period);
+		if (size == 0) return false;
+
+		int last = timestamps[size - 1];
+		if (timestamp >= last) return timestamp - last >= period;
+
+		int candle = ((int) (timestamp / period)) * period;
+		return candle != last && indexOf(candle) < 0;
 	}
 
 	public int getPeriod() {
 		return period;
 	}
 
+	/* candles of a multiple of this period, rolled up from these instead of the trades */
+	public OHLCVSeries rollUp(int period) throws Exception {
+		if (period % this.period != 0) {
+			throw new IllegalArgumentException(period + " is not a multiple of " + this.period);
+		}
+
+		OHLCVSeries ohlcv = new OHLCVSeries(period);
+		double[] open = columns[OHLCV.Open.ordinal()];
+		double[] high = columns[OHLCV.High.ordinal()];
+		double[] low = columns[OHLCV.Low.ordinal()];
+		double[] close = columns[OHLCV.Close.ordinal()];
+		double[] volume = columns[OHLCV.Volume.ordinal()];
+
+		for (int i = 0; i < size; i++) {
+			ohlcv.addCandle(timestamps[i], open[i], high[i], low[i], close[i], volume[i]);
+		}
+
+		return ohlcv;
+	}
+
+	/* merges a candle of a lower period, candles are added in time order */
+	public void addCandle(int candleTimestamp, double open, double high, double low, double close, double volume) throws Exception {
+		int timestamp = ((int) (candleTimestamp / period)) * period;
+
+		if (size > 0 && timestamps[size - 1] == timestamp) {
+			int index = size - 1;
+			double[] highs = columns[OHLCV.High.ordinal()];
+			double[] lows = columns[OHLCV.Low.ordinal()];
+
+			highs[index] = Math.max(highs[index], high);
+			lows[index] = Math.min(lows[index], low);
+			columns[OHLCV.Close.ordinal()][index] = close;
+			columns[OHLCV.Volume.ordinal()][index] += volume;
+		} else {
+			addRow(timestamp, open, high, low, close, volume);
+		}
+	}
+
+	public OHLCVSeries copy() {
+		OHLCVSeries copy = new OHLCVSeries(period);
+		copy.copyRows(this);
+		return copy;
+	}
+
 }
@@ -0,0 +1,5 @@
+package io.hbar.fx.data.series.types;
+
+public enum Order {
+	Price, Volume;
+}
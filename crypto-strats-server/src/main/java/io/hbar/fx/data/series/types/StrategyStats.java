@@ -1,5 +1,5 @@
 package io.hbar.fx.data.series.types;
 
 public enum StrategyStats {
-	Price, Volume;
+	Price, Volume, Position, AveragePrice, RealizedPnl, Fees;
 }
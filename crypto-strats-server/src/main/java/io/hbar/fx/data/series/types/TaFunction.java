@@ -0,0 +1,5 @@
+package io.hbar.fx.data.series.types;
+
+public enum TaFunction {
+	Value1, Value2, Value3;
+}
@@ -0,0 +1,192 @@
+package io.hbar.fx.data.store;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.OHLCV;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * Candles saved per symbol and period so restarts only replay the trades after them.
+ * "BTCUSD:Bitfinex" candles of 3600s live in BTCUSD_Bitfinex_3600.candles: a 32 byte header
+ * (magic, version, period, candle count, then the watermark: trades included, timestamp and
+ * price of the last one) followed by fixed width candles (int timestamp, OHLCV doubles).
+ * A snapshot is only used while the store still holds that last trade at the same index.
+ */
+public class CandleSnapshots {
+	final static Logger logger = LogManager.getLogger(CandleSnapshots.class.getName());
+
+	public final static int MAGIC = 0x48424353; // "HBCS"
+	public final static int VERSION = 1;
+	public final static int HEADER_SIZE = 32;
+	public final static int RECORD_SIZE = 44;
+
+	private File dir;
+
+	/* watermark of the file last written or read, unchanged candles are not written again */
+	private Map<String, Integer> watermarks = new ConcurrentHashMap<String, Integer>();
+
+	public CandleSnapshots(String dir) {
+		this.dir = new File(dir);
+		this.dir.mkdirs();
+	}
+
+	/* candles of the first trades of the store, null when there is no usable snapshot */
+	public Snapshot load(String symbol, int period, TradeStore store) {
+		File file = getFile(symbol, period);
+		if (file == null || !file.exists()) return null;
+
+		long t = System.currentTimeMillis();
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != period) {
+				logger.warn("ignoring " + file + ", not a snapshot of " + period + "s candles");
+				return null;
+			}
+
+			int size = in.readInt();
+			int tradeCount = in.readInt();
+			int lastTimestamp = in.readInt();
+			double lastPrice = in.readDouble();
+
+			if (tradeCount <= 0 || tradeCount > store.size() || store.getTimestamp(tradeCount - 1) != lastTimestamp
+					|| store.getPrice(tradeCount - 1) != lastPrice) {
+				logger.warn("ignoring " + file + ", the trades of " + symbol + " changed");
+				return null;
+			}
+
+			OHLCVSeries ohlcv = new OHLCVSeries(period, size);
+			double[] row = new double[OHLCV.values().length];
+
+			for (int i = 0; i < size; i++) {
+				int timestamp = in.readInt();
+				for (int j = 0; j < row.length; j++) {
+					row[j] = in.readDouble();
+				}
+				ohlcv.addRowArray(timestamp, row);
+			}
+
+			watermarks.put(file.getName(), tradeCount);
+			logger.info("loaded " + size + " candles of " + symbol + " up to trade " + tradeCount + " in " + (System.currentTimeMillis() - t) + "ms");
+
+			return new Snapshot(ohlcv, tradeCount);
+		} catch (Exception e) {
+			logger.warn("could not read " + file, e);
+			return null;
+		}
+	}
+
+	/* candles of the first tradeCount trades of the store, false when the file was already current */
+	public synchronized boolean save(String symbol, OHLCVSeries ohlcv, TradeStore store, int tradeCount) throws IOException {
+		File file = getFile(symbol, ohlcv.getPeriod());
+		if (file == null || tradeCount <= 0) return false;
+
+		Integer watermark = watermarks.get(file.getName());
+		if (watermark != null && watermark == tradeCount) return false;
+
+		File tmp = new File(file.getPath() + ".tmp");
+		double[][] columns = new double[OHLCV.values().length][];
+		for (OHLCV field : OHLCV.values()) {
+			columns[field.ordinal()] = ohlcv.getColumn(field);
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(ohlcv.getPeriod());
+			out.writeInt(ohlcv.size());
+			out.writeInt(tradeCount);
+			out.writeInt(store.getTimestamp(tradeCount - 1));
+			out.writeDouble(store.getPrice(tradeCount - 1));
+
+			for (int i = 0; i < ohlcv.size(); i++) {
+				out.writeInt(ohlcv.getTimestampAt(i));
+				for (double[] column : columns) {
+					out.writeDouble(column[i]);
+				}
+			}
+		}
+
+		if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+			throw new IOException("Could not write " + file);
+		}
+
+		watermarks.put(file.getName(), tradeCount);
+
+		return true;
+	}
+
+	/* periods with a snapshot by symbol, in ascending order */
+	public Map<String, List<Integer>> getPeriods() {
+		Map<String, List<Integer>> periods = new TreeMap<String, List<Integer>>();
+
+		String[] files = dir.list();
+		if (files == null) return periods;
+
+		for (String file : files) {
+			int separator = file.lastIndexOf('_');
+			if (!file.endsWith(".candles") || separator <= 0) continue;
+
+			int period;
+			try {
+				period = Integer.parseInt(file.substring(separator + 1, file.length() - 8));
+			} catch (NumberFormatException e) {
+				continue;
+			}
+
+			String symbol = file.substring(0, separator).replace('_', ':');
+			if (!periods.containsKey(symbol)) {
+				periods.put(symbol, new ArrayList<Integer>());
+			}
+			periods.get(symbol).add(period);
+		}
+
+		for (List<Integer> symbolPeriods : periods.values()) {
+			Collections.sort(symbolPeriods);
+		}
+
+		return periods;
+	}
+
+	/* null for symbols that are not plain file names */
+	private File getFile(String symbol, int period) {
+		String name = symbol.replace(':', '_');
+		if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.startsWith(".")) return null;
+
+		return new File(dir, name + "_" + period + ".candles");
+	}
+
+	public static class Snapshot {
+		private OHLCVSeries candles;
+		private int tradeCount;
+
+		public Snapshot(OHLCVSeries candles, int tradeCount) {
+			this.candles = candles;
+			this.tradeCount = tradeCount;
+		}
+
+		public OHLCVSeries getCandles() {
+			return candles;
+		}
+
+		/* trades included, the next one to replay */
+		public int getTradeCount() {
+			return tradeCount;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package io.hbar.fx.data.store;
+
+import java.util.Arrays;
+
+/*
+ * A trade history that grows: trades appended after the ones of the underlying store are kept
+ * in memory. One thread appends, any number read. Appended columns are written before size is
+ * published, so a reader sees every trade below the size it read.
+ */
+public class LiveTradeStore extends TradeStore {
+	private final static int DEFAULT_CAPACITY = 1024;
+
+	private TradeStore history;
+	private int historySize;
+
+	private volatile int size;
+
+	private int[] timestamps = new int[DEFAULT_CAPACITY];
+	private double[] prices = new double[DEFAULT_CAPACITY];
+	private double[] volumes = new double[DEFAULT_CAPACITY];
+
+	public LiveTradeStore(TradeStore history) {
+		this.history = history;
+		this.historySize = history.size();
+		this.size = historySize;
+	}
+
+	/* timestamps must not go backwards */
+	public void append(int timestamp, double price, double volume) {
+		int index = size - historySize;
+
+		if (size > 0 && timestamp < getTimestamp(size - 1)) {
+			throw new IllegalArgumentException("Trade at " + timestamp + " is older than the last one at " + getTimestamp(size - 1));
+		}
+
+		if (index == timestamps.length) {
+			int capacity = timestamps.length + (timestamps.length >> 1);
+
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			prices = Arrays.copyOf(prices, capacity);
+			volumes = Arrays.copyOf(volumes, capacity);
+		}
+
+		timestamps[index] = timestamp;
+		prices[index] = price;
+		volumes[index] = volume;
+
+		size++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getTimestamp(int index) {
+		return index < historySize ? history.getTimestamp(index) : timestamps[index - historySize];
+	}
+
+	@Override
+	public double getPrice(int index) {
+		return index < historySize ? history.getPrice(index) : prices[index - historySize];
+	}
+
+	@Override
+	public double getVolume(int index) {
+		return index < historySize ? history.getVolume(index) : volumes[index - historySize];
+	}
+}
@@ -0,0 +1,79 @@
+package io.hbar.fx.data.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ * Trade file memory mapped read only. The file is a 16 byte header followed by fixed width
+ * records (int timestamp, double price, double volume). Records are mapped in segments so
+ * histories beyond the 2GB limit of a single mapping still work.
+ */
+public class MappedTradeStore extends TradeStore {
+	public final static int MAGIC = 0x48425452; // "HBTR"
+	public final static int VERSION = 1;
+	public final static int HEADER_SIZE = 16;
+	public final static int RECORD_SIZE = 20;
+
+	private final static int SEGMENT_SHIFT = 26;
+	private final static int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	private MappedByteBuffer[] segments;
+	private int size;
+
+	public MappedTradeStore(String file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(new File(file), "r"); FileChannel channel = raf.getChannel()) {
+			long length = channel.size();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if (length < HEADER_SIZE || channel.read(header, 0) != HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException("Not a trade file: " + file);
+			}
+
+			size = (int) ((length - HEADER_SIZE) / RECORD_SIZE);
+			segments = new MappedByteBuffer[(size >> SEGMENT_SHIFT) + 1];
+
+			for (int i = 0; i < segments.length; i++) {
+				long first = (long) i << SEGMENT_SHIFT;
+				long count = Math.min(size - first, 1L << SEGMENT_SHIFT);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, count * RECORD_SIZE);
+			}
+		}
+	}
+
+	/* csv files are converted to a binary file next to them first, if it is missing or older */
+	public static MappedTradeStore open(String file) throws IOException {
+		if (file.endsWith(".csv")) {
+			String binaryFile = TradeFileConverter.getBinaryFile(file);
+			if (TradeFileConverter.isStale(file, binaryFile)) {
+				TradeFileConverter.convert(file, binaryFile);
+			}
+			file = binaryFile;
+		}
+
+		return new MappedTradeStore(file);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getTimestamp(int index) {
+		return segments[index >>> SEGMENT_SHIFT].getInt((index & SEGMENT_MASK) * RECORD_SIZE);
+	}
+
+	@Override
+	public double getPrice(int index) {
+		return segments[index >>> SEGMENT_SHIFT].getDouble((index & SEGMENT_MASK) * RECORD_SIZE + 4);
+	}
+
+	@Override
+	public double getVolume(int index) {
+		return segments[index >>> SEGMENT_SHIFT].getDouble((index & SEGMENT_MASK) * RECORD_SIZE + 12);
+	}
+}
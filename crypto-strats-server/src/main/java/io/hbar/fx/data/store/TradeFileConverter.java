@@ -0,0 +1,83 @@
+package io.hbar.fx.data.store;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/*
+ * One time conversion of "timestamp,price,volume" CSV trade dumps into the binary format read
+ * by MappedTradeStore.
+ */
+public class TradeFileConverter {
+	final static Logger logger = LogManager.getLogger(TradeFileConverter.class.getName());
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: TradeFileConverter <trades.csv> [trades.bin]");
+			return;
+		}
+
+		convert(args[0], args.length > 1 ? args[1] : getBinaryFile(args[0]));
+	}
+
+	/* the binary file for a csv lives next to it */
+	public static String getBinaryFile(String csvFile) {
+		return (csvFile.endsWith(".csv") ? csvFile.substring(0, csvFile.length() - 4) : csvFile) + ".bin";
+	}
+
+	public static boolean isStale(String csvFile, String binaryFile) {
+		File binary = new File(binaryFile);
+		return !binary.exists() || binary.lastModified() < new File(csvFile).lastModified();
+	}
+
+	/* stores are searched by timestamp, a dump out of time order fails without touching binaryFile */
+	public static int convert(String csvFile, String binaryFile) throws IOException {
+		long t = System.currentTimeMillis();
+		int count = 0;
+		int lastTimestamp = Integer.MIN_VALUE;
+
+		File tmp = new File(binaryFile + ".tmp");
+
+		try (BufferedReader br = new BufferedReader(new FileReader(csvFile));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+			out.writeInt(MappedTradeStore.MAGIC);
+			out.writeInt(MappedTradeStore.VERSION);
+			out.writeLong(0);
+
+			String line;
+			while ((line = br.readLine()) != null) {
+				String[] tpv = line.split(",");
+				int timestamp = Integer.parseInt(tpv[0]);
+
+				if (timestamp < lastTimestamp) {
+					throw new IOException("Trade at " + timestamp + " on line " + (count + 1) + " of " + csvFile + " is older than the last one at " + lastTimestamp);
+				}
+				lastTimestamp = timestamp;
+
+				out.writeInt(timestamp);
+				out.writeDouble(Double.parseDouble(tpv[1]));
+				out.writeDouble(Double.parseDouble(tpv[2]));
+				count++;
+			}
+		} catch (IOException e) {
+			tmp.delete();
+			throw e;
+		}
+
+		File binary = new File(binaryFile);
+		if (binary.exists() && !binary.delete() || !tmp.renameTo(binary)) {
+			throw new IOException("Could not write " + binaryFile);
+		}
+
+		logger.info("converted " + count + " trades from " + csvFile + " in " + (System.currentTimeMillis() - t) + "ms");
+
+		return count;
+	}
+}
@@ -0,0 +1,38 @@
+package io.hbar.fx.data.store;
+
+/*
+ * Read access to a time ordered trade history by index, without materializing Trade objects.
+ */
+public abstract class TradeStore {
+
+	public abstract int size();
+
+	public abstract int getTimestamp(int index);
+
+	public abstract double getPrice(int index);
+
+	public abstract double getVolume(int index);
+
+	/* index of the first trade at or after the timestamp, size() if there is none */
+	public int ceilingIndex(int timestamp) {
+		int low = 0;
+		int high = size();
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getTimestamp(mid) < timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/* index of the first trade strictly after the timestamp, size() if there is none */
+	public int higherIndex(int timestamp) {
+		return timestamp == Integer.MAX_VALUE ? size() : ceilingIndex(timestamp + 1);
+	}
+
+}
@@ -0,0 +1,113 @@
+package io.hbar.fx.data.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/*
+ * Trade histories by symbol. With a data directory each symbol has its own file, mapped on
+ * first use: "BTCUSD:Bitfinex" reads BTCUSD_Bitfinex.bin, or BTCUSD_Bitfinex.csv converted
+ * next to it. With a single store every symbol reads that store.
+ */
+public class TradeStores {
+	final static Logger logger = LogManager.getLogger(TradeStores.class.getName());
+
+	private File dataDir;
+	private TradeStore store;
+
+	private Cache<String, TradeStore> stores;
+
+	public TradeStores(String dataDir) {
+		this.dataDir = new File(dataDir);
+		this.stores = CacheBuilder.newBuilder().build();
+	}
+
+	public TradeStores(TradeStore store) {
+		this.store = store;
+	}
+
+	/* throws IllegalArgumentException for a symbol without trade file */
+	public TradeStore get(final String symbol) {
+		if (stores == null) return store;
+
+		try {
+			return stores.get(symbol, new Callable<TradeStore>() {
+				@Override
+				public TradeStore call() throws IOException {
+					return open(symbol);
+				}
+			});
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} catch (UncheckedExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+	/* swaps the store a symbol reads, with a single store every symbol gets it */
+	public void replace(String symbol, TradeStore replacement) {
+		if (stores == null) {
+			store = replacement;
+		} else {
+			stores.put(symbol, replacement);
+		}
+	}
+
+	public List<TradeStore> getLoaded() {
+		return stores == null ? Collections.singletonList(store) : new ArrayList<TradeStore>(stores.asMap().values());
+	}
+
+	/* symbols with a trade file, none with a single store */
+	public List<String> getSymbols() {
+		List<String> symbols = new ArrayList<String>();
+		if (dataDir == null) return symbols;
+
+		String[] files = dataDir.list();
+		if (files == null) return symbols;
+
+		for (String file : files) {
+			String name = file.endsWith(".bin") || file.endsWith(".csv") ? file.substring(0, file.length() - 4) : null;
+			String symbol = name != null ? name.replace('_', ':') : null;
+
+			if (symbol != null && !symbols.contains(symbol)) {
+				symbols.add(symbol);
+			}
+		}
+
+		Collections.sort(symbols);
+
+		return symbols;
+	}
+
+	private TradeStore open(String symbol) throws IOException {
+		String name = symbol.replace(':', '_');
+
+		if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.startsWith(".")) {
+			throw new IllegalArgumentException("Invalid symbol " + symbol);
+		}
+
+		File csv = new File(dataDir, name + ".csv");
+		File binary = new File(dataDir, name + ".bin");
+
+		if (!csv.exists() && !binary.exists()) {
+			throw new IllegalArgumentException("No trades for symbol " + symbol);
+		}
+
+		TradeStore store = MappedTradeStore.open(csv.exists() ? csv.getPath() : binary.getPath());
+		logger.info("mapped " + store.size() + " trades for " + symbol);
+
+		return store;
+	}
+}
@@ -0,0 +1,86 @@
+package io.hbar.fx.execution;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Market conditions orders are filled under. Fees are fractions of the notional, limit orders
+ * pay the maker fee and market or triggered stop orders the taker one, which also slip by
+ * slippage plus impact times their share of the trade they fill against. An order can take
+ * participation of each trade's volume, the rest fills on later trades. Orders wait latency
+ * seconds before they can fill, and always for the next trade.
+ */
+public class ExecutionModel {
+	public final static ExecutionModel DEFAULT = new ExecutionModel(0, 0, 0, 0, 0, 1);
+
+	private int latency;
+	private double makerFee;
+	private double takerFee;
+	private double slippage;
+	private double impact;
+	private double participation;
+
+	public ExecutionModel(int latency, double makerFee, double takerFee, double slippage, double impact, double participation) {
+		if (latency < 0 || participation <= 0 || participation > 1) {
+			throw new IllegalArgumentException("Invalid execution model: latency " + latency + ", participation " + participation);
+		}
+
+		this.latency = latency;
+		this.makerFee = makerFee;
+		this.takerFee = takerFee;
+		this.slippage = slippage;
+		this.impact = impact;
+		this.participation = participation;
+	}
+
+	/* {latency, makerFee, takerFee, slippage, impact, participation}, missing keys are the defaults */
+	public static ExecutionModel fromJson(JsonObject json) {
+		if (json == null) return DEFAULT;
+
+		return new ExecutionModel(
+				json.getInteger("latency", DEFAULT.latency),
+				getDouble(json, "makerFee", DEFAULT.makerFee),
+				getDouble(json, "takerFee", DEFAULT.takerFee),
+				getDouble(json, "slippage", DEFAULT.slippage),
+				getDouble(json, "impact", DEFAULT.impact),
+				getDouble(json, "participation", DEFAULT.participation));
+	}
+
+	private static double getDouble(JsonObject json, String name, double defaultValue) {
+		Number value = json.getNumber(name);
+		return value != null ? value.doubleValue() : defaultValue;
+	}
+
+	public int getLatency() {
+		return latency;
+	}
+
+	public double getMakerFee() {
+		return makerFee;
+	}
+
+	public double getTakerFee() {
+		return takerFee;
+	}
+
+	public double getSlippage() {
+		return slippage;
+	}
+
+	public double getImpact() {
+		return impact;
+	}
+
+	public double getParticipation() {
+		return participation;
+	}
+
+	public JsonObject toJson() {
+		return new JsonObject()
+			.putNumber("latency", latency)
+			.putNumber("makerFee", makerFee)
+			.putNumber("takerFee", takerFee)
+			.putNumber("slippage", slippage)
+			.putNumber("impact", impact)
+			.putNumber("participation", participation);
+	}
+}
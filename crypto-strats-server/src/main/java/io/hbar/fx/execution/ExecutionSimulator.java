@@ -0,0 +1,200 @@
+package io.hbar.fx.execution;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.store.TradeStore;
+import io.hbar.fx.strategy.Strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Fills a strategy's orders against the trades replayed after them, without an order book.
+ * Each trade offers its volume times the participation to the open orders in submission
+ * order: market orders take it at the trade price, limit orders at their price once the trade
+ * touches it, stop orders turn into market orders once the trade reaches their price. Fills
+ * are booked on the strategy, every order submitted is recorded in an order series.
+ *
+ * A trade with no open order costs one check, so replays keep their speed. Vectorized runs
+ * replay nothing: the strategy seeks forward to the trade it acts on, which sweeps the trades
+ * of the store up to it past the open orders in time order, skipping them while none is open.
+ */
+public class ExecutionSimulator {
+	private Strategy strategy;
+	private ExecutionModel model;
+
+	private List<Order> open = new ArrayList<Order>();
+	private FieldSeries<io.hbar.fx.data.series.types.Order> series;
+
+	private int nextId = 0;
+	private long trades = 0;
+	private int lastTimestamp = 0;
+	private double lastPrice = Double.NaN;
+
+	/* vectorized runs, the last trade of the store swept */
+	private TradeStore tradeStore;
+	private int tradeIndex = -1;
+
+	public ExecutionSimulator(Strategy strategy, ExecutionModel model) {
+		this.strategy = strategy;
+		this.model = model;
+		this.series = new FieldSeries<io.hbar.fx.data.series.types.Order>(io.hbar.fx.data.series.types.Order.class, new JsonObject());
+	}
+
+	/* volume is signed, price is the limit or stop price and ignored for market orders */
+	public Order submit(Order.Type type, double volume, double price) {
+		if (volume == 0 || Double.isNaN(volume)) {
+			throw new IllegalArgumentException("Invalid order volume " + volume);
+		}
+		if (type != Order.Type.Market && !(price > 0)) {
+			throw new IllegalArgumentException("Invalid " + type + " price " + price);
+		}
+
+		Order order = new Order(nextId++, type, volume, type == Order.Type.Market ? lastPrice : price, lastTimestamp,
+				lastTimestamp + model.getLatency(), trades);
+
+		open.add(order);
+		record(order);
+
+		return order;
+	}
+
+	/* false when the order was already filled or cancelled */
+	public boolean cancel(Order order) {
+		if (!order.isOpen()) return false;
+
+		order.cancel();
+		return true;
+	}
+
+	/* vectorized runs, orders are filled against the trade store from now on */
+	public void setTradeStore(TradeStore tradeStore) {
+		this.tradeStore = tradeStore;
+	}
+
+	/* vectorized runs, fills the open orders up to the trade of the store the next orders are placed on */
+	public void seek(int index) {
+		if (index < tradeIndex) {
+			throw new IllegalArgumentException("Cannot seek back from trade " + tradeIndex + " to " + index);
+		}
+
+		while (tradeIndex < index) {
+			tradeIndex = open.isEmpty() ? index : tradeIndex + 1;
+			trades = tradeIndex;
+
+			onTrade(tradeStore.getTimestamp(tradeIndex), tradeStore.getPrice(tradeIndex), tradeStore.getVolume(tradeIndex));
+		}
+	}
+
+	/* fills are booked before the strategy hears of the trade, orders placed meanwhile wait for the next one */
+	public void onTrade(int timestamp, double price, double volume) {
+		trades++;
+		lastTimestamp = timestamp;
+		lastPrice = price;
+
+		if (open.isEmpty()) return;
+
+		double liquidity = Math.abs(volume) * model.getParticipation();
+		int kept = 0;
+
+		for (int i = 0; i < open.size(); i++) {
+			Order order = open.get(i);
+
+			if (order.isOpen() && liquidity > 0 && order.getSubmitTrade() < trades && timestamp >= order.getActiveTime()) {
+				liquidity -= fill(order, timestamp, price, Math.abs(volume), liquidity);
+			}
+
+			if (order.isOpen()) {
+				open.set(kept++, order);
+			}
+		}
+
+		while (open.size() > kept) {
+			open.remove(open.size() - 1);
+		}
+	}
+
+	/* returns the volume taken from the trade */
+	private double fill(Order order, int timestamp, double price, double tradeVolume, double liquidity) {
+		boolean buy = order.isBuy();
+		boolean maker = false;
+		double fillPrice;
+
+		switch (order.getType()) {
+		case Limit:
+			if (buy ? price > order.getPrice() : price < order.getPrice()) return 0;
+
+			fillPrice = order.getPrice();
+			maker = true;
+			break;
+		case Stop:
+			if (!order.isTriggered()) {
+				if (buy ? price < order.getPrice() : price > order.getPrice()) return 0;
+				order.trigger();
+			}
+			fillPrice = price;
+			break;
+		default:
+			fillPrice = price;
+		}
+
+		double volume = Math.min(Math.abs(order.getRemainingVolume()), liquidity);
+
+		if (!maker) {
+			double slippage = model.getSlippage() + (tradeVolume > 0 ? model.getImpact() * volume / tradeVolume : 0);
+			fillPrice *= buy ? 1 + slippage : 1 - slippage;
+		}
+
+		double fee = volume * fillPrice * (maker ? model.getMakerFee() : model.getTakerFee());
+		double signedVolume = buy ? volume : -volume;
+
+		order.addFill(fillPrice, signedVolume, fee);
+		strategy.bookFill(order, timestamp, fillPrice, signedVolume, fee);
+
+		return volume;
+	}
+
+	/* orders of the same second and side share a row at their average price, sells a second later like the fills */
+	private void record(Order order) {
+		int timestamp = order.isBuy() ? order.getSubmitTime() : order.getSubmitTime() + 1;
+		double price = order.getPrice();
+		double volume = order.getVolume();
+
+		try {
+			int index = series.indexOf(timestamp);
+
+			if (index >= 0 && (series.getValueAt(index, io.hbar.fx.data.series.types.Order.Volume) > 0) == (volume > 0)) {
+				double currentPrice = series.getValueAt(index, io.hbar.fx.data.series.types.Order.Price);
+				double currentVolume = series.getValueAt(index, io.hbar.fx.data.series.types.Order.Volume);
+
+				price = (currentPrice * currentVolume + price * volume) / (currentVolume + volume);
+				volume += currentVolume;
+			}
+
+			series.addRow(timestamp, price, volume);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public List<Order> getOpenOrders() {
+		List<Order> orders = new ArrayList<Order>();
+		for (Order order : open) {
+			if (order.isOpen()) orders.add(order);
+		}
+		return orders;
+	}
+
+	public FieldSeries<io.hbar.fx.data.series.types.Order> getSeries() {
+		return series;
+	}
+
+	public ExecutionModel getModel() {
+		return model;
+	}
+
+	public void setModel(ExecutionModel model) {
+		this.model = model;
+	}
+}
@@ -0,0 +1,131 @@
+package io.hbar.fx.execution;
+
+/*
+ * Order of a strategy to the execution simulator. Volume is signed, negative for sells. Limit
+ * and stop orders carry their price, market orders the price of the last trade seen when they
+ * were submitted. Fills may come in parts, the order stays open until it is complete.
+ */
+public class Order {
+	public enum Type {
+		Market, Limit, Stop;
+	}
+
+	public enum Status {
+		Open, Filled, Cancelled;
+	}
+
+	private int id;
+	private Type type;
+	private double volume;
+	private double price;
+
+	private int submitTime;
+	/* first trade timestamp the order can fill at, and the trades seen before submission */
+	private int activeTime;
+	private long submitTrade;
+
+	private Status status = Status.Open;
+	private boolean triggered = false;
+
+	private double filledVolume = 0;
+	private double averageFillPrice = 0;
+	private double fees = 0;
+
+	public Order(int id, Type type, double volume, double price, int submitTime, int activeTime, long submitTrade) {
+		this.id = id;
+		this.type = type;
+		this.volume = volume;
+		this.price = price;
+		this.submitTime = submitTime;
+		this.activeTime = activeTime;
+		this.submitTrade = submitTrade;
+	}
+
+	void addFill(double price, double volume, double fee) {
+		averageFillPrice = (averageFillPrice * filledVolume + price * volume) / (filledVolume + volume);
+		fees += fee;
+
+		/* filledVolume + (volume - filledVolume) can round below volume and leave the order open */
+		if (Math.abs(volume) >= Math.abs(getRemainingVolume())) {
+			filledVolume = this.volume;
+			status = Status.Filled;
+		} else {
+			filledVolume += volume;
+		}
+	}
+
+	void cancel() {
+		if (status == Status.Open) status = Status.Cancelled;
+	}
+
+	void trigger() {
+		triggered = true;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public double getVolume() {
+		return volume;
+	}
+
+	public boolean isBuy() {
+		return volume > 0;
+	}
+
+	public double getPrice() {
+		return price;
+	}
+
+	public int getSubmitTime() {
+		return submitTime;
+	}
+
+	public int getActiveTime() {
+		return activeTime;
+	}
+
+	long getSubmitTrade() {
+		return submitTrade;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public boolean isOpen() {
+		return status == Status.Open;
+	}
+
+	/* stop orders turn into market orders once the market trades through their price */
+	public boolean isTriggered() {
+		return triggered;
+	}
+
+	public double getFilledVolume() {
+		return filledVolume;
+	}
+
+	/* signed like the volume */
+	public double getRemainingVolume() {
+		return volume - filledVolume;
+	}
+
+	public double getAverageFillPrice() {
+		return averageFillPrice;
+	}
+
+	public double getFees() {
+		return fees;
+	}
+
+	public String toString() {
+		return type + " #" + id + " " + volume + (type != Type.Market ? " @ " + price : "") + " " + status + " (filled " + filledVolume + " @ "
+				+ averageFillPrice + ")";
+	}
+}
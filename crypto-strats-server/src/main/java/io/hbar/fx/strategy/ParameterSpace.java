@@ -0,0 +1,115 @@
+package io.hbar.fx.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Discrete values per strategy parameter, enumerated as a full grid or sampled at random.
+ * Every point is a parameters object for Strategy.setParameters.
+ */
+public class ParameterSpace {
+	private Map<String, List<Object>> dimensions = new LinkedHashMap<String, List<Object>>();
+
+	public ParameterSpace values(String name, Object... values) {
+		dimensions.put(name, Arrays.asList(values));
+		return this;
+	}
+
+	/* min to max inclusive */
+	public ParameterSpace range(String name, double min, double max, double step) {
+		List<Object> values = new ArrayList<Object>();
+
+		int steps = (int) Math.floor((max - min) / step + 1e-9);
+		for (int i = 0; i <= steps; i++) {
+			values.add(Math.round((min + i * step) * 1e10) / 1e10);
+		}
+
+		dimensions.put(name, values);
+		return this;
+	}
+
+	/* {"name": [values], "name": {"min": 0.01, "max": 0.05, "step": 0.01}} */
+	public static ParameterSpace fromJson(JsonObject json) {
+		ParameterSpace space = new ParameterSpace();
+
+		for (String name : json.getFieldNames()) {
+			Object dimension = json.getValue(name);
+
+			if (dimension instanceof JsonArray) {
+				space.values(name, ((JsonArray) dimension).toArray());
+			} else {
+				JsonObject range = (JsonObject) dimension;
+				space.range(name, range.getNumber("min").doubleValue(), range.getNumber("max").doubleValue(), range.getNumber("step").doubleValue());
+			}
+		}
+
+		return space;
+	}
+
+	public int size() {
+		int size = 1;
+		for (List<Object> values : dimensions.values()) {
+			size *= values.size();
+		}
+		return size;
+	}
+
+	public List<JsonObject> grid() {
+		List<JsonObject> points = new ArrayList<JsonObject>();
+		int size = size();
+
+		for (int n = 0; n < size; n++) {
+			JsonObject point = new JsonObject();
+
+			int index = n;
+			for (Map.Entry<String, List<Object>> dimension : dimensions.entrySet()) {
+				List<Object> values = dimension.getValue();
+				point.putValue(dimension.getKey(), values.get(index % values.size()));
+				index /= values.size();
+			}
+
+			points.add(point);
+		}
+
+		return points;
+	}
+
+	/* distinct grid points drawn uniformly, the whole grid when it has no more than count points */
+	public List<JsonObject> sample(int count, Random random) {
+		int size = size();
+		if (count >= size) {
+			return grid();
+		}
+
+		List<JsonObject> points = new ArrayList<JsonObject>();
+		Set<String> seen = new HashSet<String>();
+
+		while (points.size() < count) {
+			JsonObject point = new JsonObject();
+
+			for (Map.Entry<String, List<Object>> dimension : dimensions.entrySet()) {
+				List<Object> values = dimension.getValue();
+				point.putValue(dimension.getKey(), values.get(random.nextInt(values.size())));
+			}
+
+			if (seen.add(point.toString())) {
+				points.add(point);
+			}
+		}
+
+		return points;
+	}
+
+	public String toString() {
+		return dimensions.toString();
+	}
+}
@@ -0,0 +1,108 @@
+package io.hbar.fx.strategy;
+
+/*
+ * Running account of a strategy's fills at average cost, updated in constant time per fill.
+ * Reducing the position realizes the difference to the average entry price, flipping it opens
+ * the rest at the fill price. Unrealized PnL and exposure are marked at the last price seen.
+ */
+public class Position {
+	private double volume = 0;
+	private double averagePrice = 0;
+	private double realizedPnl = 0;
+	private double fees = 0;
+
+	private double bought = 0;
+	private double sold = 0;
+	private int fills = 0;
+
+	private double lastPrice = Double.NaN;
+
+	/* volume is signed, negative for sells */
+	public void addFill(double price, double volume, double fee) {
+		if (volume == 0) return;
+
+		if (this.volume == 0 || (this.volume > 0) == (volume > 0)) {
+			double total = Math.abs(this.volume) + Math.abs(volume);
+			averagePrice = (averagePrice * Math.abs(this.volume) + price * Math.abs(volume)) / total;
+			this.volume += volume;
+		} else {
+			double closed = Math.min(Math.abs(volume), Math.abs(this.volume));
+			realizedPnl += closed * (price - averagePrice) * Math.signum(this.volume);
+
+			double remaining = this.volume + volume;
+			if (remaining == 0 || (remaining > 0) != (this.volume > 0)) {
+				averagePrice = remaining == 0 ? 0 : price;
+			}
+			this.volume = remaining;
+		}
+
+		if (volume > 0) {
+			bought += volume;
+		} else {
+			sold -= volume;
+		}
+
+		fees += fee;
+		fills++;
+		lastPrice = price;
+	}
+
+	public void mark(double price) {
+		lastPrice = price;
+	}
+
+	public double getVolume() {
+		return volume;
+	}
+
+	public boolean isFlat() {
+		return volume == 0;
+	}
+
+	/* entry price of the open volume, 0 when flat */
+	public double getAveragePrice() {
+		return averagePrice;
+	}
+
+	public double getRealizedPnl() {
+		return realizedPnl;
+	}
+
+	public double getUnrealizedPnl() {
+		return volume == 0 ? 0 : volume * (lastPrice - averagePrice);
+	}
+
+	/* realized and unrealized, net of fees */
+	public double getPnl() {
+		return realizedPnl + getUnrealizedPnl() - fees;
+	}
+
+	public double getFees() {
+		return fees;
+	}
+
+	/* absolute value of the open volume at the last price */
+	public double getExposure() {
+		return volume == 0 ? 0 : Math.abs(volume) * lastPrice;
+	}
+
+	public double getBought() {
+		return bought;
+	}
+
+	public double getSold() {
+		return sold;
+	}
+
+	public int getFills() {
+		return fills;
+	}
+
+	public double getLastPrice() {
+		return lastPrice;
+	}
+
+	public String toString() {
+		return volume + " @ " + averagePrice + " (realized " + realizedPnl + ", unrealized " + getUnrealizedPnl() + ", fees " + fees + ")";
+	}
+}
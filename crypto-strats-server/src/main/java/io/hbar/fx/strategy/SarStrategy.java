@@ -3,12 +3,10 @@ package io.hbar.fx.strategy;
 import io.hbar.fx.data.Trade;
 import io.hbar.fx.data.series.FieldSeries;
 import io.hbar.fx.data.series.types.OHLCV;
-import io.hbar.fx.data.series.types.StrategyStats;
 import io.hbar.fx.data.series.types.SAR;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -29,24 +27,52 @@ public class SarStrategy extends Strategy {
 	
 	List<Leg> legs = new ArrayList<Leg>();
 	
+	FieldSeries<OHLCV> ohlcvSeries;
+	FieldSeries<SAR> sarSeries;
+	
 	@Override
-	public void tick() {
-		FieldSeries<OHLCV> ohlcvSeries = (FieldSeries<OHLCV>) dataManager.getSeries("BTCUSD:Bitfinex", OHLCV.class, PERIOD, new JsonObject());
-		int[] timestamps = ohlcvSeries.getTimestamps();
-		int time = timestamps[timestamps.length - 1];
+	public void setParameters(JsonObject parameters) {
+		super.setParameters(parameters);
 		
-		FieldSeries<SAR> sarSeries = (FieldSeries<SAR>) dataManager.getSeries("BTCUSD:Bitfinex", SAR.class, PERIOD, OPTIONS);
+		OPTIONS = new JsonObject()
+			.putNumber("acceleration", getParameter("sarAcceleration", 0.02))
+			.putNumber("maximum", getParameter("sarMaximum", 0.2));
+		PERIOD = getParameter("period", PERIOD);
 		
-		Map<OHLCV, Double> ohlcv = ohlcvSeries.getRow(time);
-		Map<SAR, Double> sar = sarSeries.getRow(time);
+		BUY_THRESH = getParameter("buyThreshold", BUY_THRESH);
+		LIQ_THRESH = getParameter("liquidateThreshold", LIQ_THRESH);
+	}
+	
+	@Override
+	public ParameterSpace getParameterSpace() {
+		return new ParameterSpace()
+			.values("period", 900, 1800, 3600, 14400)
+			.range("buyThreshold", 0.005, 0.02, 0.005)
+			.range("liquidateThreshold", 0.01, 0.04, 0.01)
+			.values("sarAcceleration", 0.01, 0.02, 0.03)
+			.values("sarMaximum", 0.1, 0.2, 0.3);
+	}
+	
+	@Override
+	protected void register() {
+		ohlcvSeries = dataManager.getSeries("BTCUSD:Bitfinex", OHLCV.class, PERIOD, new JsonObject());
+		sarSeries = subscribeIndicator("BTCUSD:Bitfinex", SAR.class, PERIOD, OPTIONS);
 		
-		double currentPrice = ohlcv.get(OHLCV.Close);
-		double currentDelta = (currentPrice - sar.get(SAR.Value)) / currentPrice;
+		subscribeTrades();
+	}
+	
+	@Override
+	public void onTrade(int timestamp, double price, double volume) {
+		int time = ohlcvSeries.getLastTimestamp();
+		
+		double currentPrice = ohlcvSeries.getLastValue(OHLCV.Close);
+		double currentSar = sarSeries.getValue(time, SAR.Value);
+		double currentDelta = (currentPrice - currentSar) / currentPrice;
 		double absCurrentDelta = Math.abs(currentDelta);
 		
 		Leg currentLeg = legs.size() > 0 ? legs.get(legs.size() - 1) : null;
 		
-		logger.info("position: " + getPosition() + "price: " + currentPrice + " sar: " + sar.get(SAR.Value) + " delta: " + currentDelta);
+		logger.info("position: " + position + " price: " + currentPrice + " sar: " + currentSar + " delta: " + currentDelta);
 		
 		/* start new leg */
 		if(currentLeg == null || currentLeg.liquidated) {
@@ -69,7 +95,7 @@ public class SarStrategy extends Strategy {
 					trade = new Trade(time, currentPrice, 0.1);
 					currentLeg.addTrade(trade);
 					
-					addTrade(trade);
+					submitMarketOrder(trade.getVolume());
 					
 					logger.info("long " + trade);
 				} else if(currentDelta < 0 && !currentLeg.liquidated && (absCurrentDelta > LIQ_THRESH || absCurrentDelta < BUY_THRESH)) {
@@ -78,7 +104,7 @@ public class SarStrategy extends Strategy {
 					currentLeg.addTrade(trade);
 					currentLeg.liquidated = true;
 					
-					addTrade(trade);
+					submitMarketOrder(trade.getVolume());
 					
 					logger.info("liquidate long " + trade);
 					
@@ -90,7 +116,7 @@ public class SarStrategy extends Strategy {
 						
 						legs.add(currentLeg);
 						
-						addTrade(trade);
+						submitMarketOrder(trade.getVolume());
 						
 						logger.info("swing short " + trade);
 					}
@@ -101,7 +127,7 @@ public class SarStrategy extends Strategy {
 					trade = new Trade(time + 1, currentPrice, -0.1);
 					currentLeg.addTrade(trade);
 					
-					addTrade(trade);
+					submitMarketOrder(trade.getVolume());
 					
 					logger.info("short " + trade);
 				} else if(currentDelta > 0 && !currentLeg.liquidated && (absCurrentDelta > LIQ_THRESH || absCurrentDelta < BUY_THRESH)) {
@@ -110,7 +136,7 @@ public class SarStrategy extends Strategy {
 					currentLeg.addTrade(trade);
 					currentLeg.liquidated = true;
 					
-					addTrade(trade);
+					submitMarketOrder(trade.getVolume());
 					
 					logger.info("liquidate short " + trade);
 					
@@ -122,7 +148,7 @@ public class SarStrategy extends Strategy {
 						
 						legs.add(currentLeg);
 						
-						addTrade(trade);
+						submitMarketOrder(trade.getVolume());
 						
 						logger.info("swing long " + trade);
 					}
@@ -134,15 +160,6 @@ public class SarStrategy extends Strategy {
 		if(currentLeg != null) logger.info("legPos: " + currentLeg.getVolume());
 	}
 	
-	private Trade getPosition() {
-		double volume = 0;
-		
-		for(Integer row : series.table.rowKeySet()) {
-			volume += series.table.get(row, StrategyStats.Volume);
-		}
-		return new Trade(0, 0, volume);
-	}
-	
 	private class Leg {
 		public final static String LONG = "long";
 		public final static String SHORT = "short";
@@ -153,40 +170,33 @@ public class SarStrategy extends Strategy {
 		
 		private TradeList tradeList = new TradeList();
 		
+		/* running totals of the trades in the leg */
+		private double longVolume = 0;
+		private double shortVolume = 0;
+		private double volume = 0;
+		
 		public Leg(String direction) {
 			this.direction = direction;
 		}
 		
 		public void addTrade(Trade trade) {
 			tradeList.addTrade(trade);
+			
+			if(trade.getVolume() > 0) longVolume += trade.getVolume();
+			if(trade.getVolume() < 0) shortVolume += trade.getVolume();
+			volume += trade.getVolume();
 		}
 		
 		public double getLongVolume() {
-			double v = 0;
-			
-			for(Trade trade : tradeList.trades) {
-				if(trade.getVolume() > 0) v += trade.getVolume();
-			}
-			
-			return v;
+			return longVolume;
 		}
 		
 		public double getShortVolume() {
-			double v = 0;
-			
-			for(Trade trade : tradeList.trades) {
-				if(trade.getVolume() < 0) v += trade.getVolume();
-			}
-			
-			return v;
+			return shortVolume;
 		}
 		
 		public double getVolume() {
-			double v = 0;
-			
-			for(Trade trade : tradeList.trades) v += trade.getVolume();
-			
-			return v;
+			return volume;
 		}
 	}
 	
@@ -1,7 +1,5 @@
 package io.hbar.fx.strategy;
 
-import java.util.Map;
-
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vertx.java.core.json.JsonObject;
@@ -9,55 +7,187 @@ import org.vertx.java.core.json.JsonObject;
 import io.hbar.fx.data.DataManager;
 import io.hbar.fx.data.Trade;
 import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
 import io.hbar.fx.data.series.types.StrategyStats;
+import io.hbar.fx.execution.ExecutionSimulator;
+import io.hbar.fx.execution.Order;
+
+import java.util.ArrayList;
+import java.util.List;
 
+/*
+ * Strategies declare the series they depend on once in register() and keep the handles. The
+ * engine then only calls back what they subscribed to: onTrade for every trade, onCandleClose
+ * before a trade opens the next candle of subscribed candles, onIndicatorUpdate when a
+ * subscribed indicator gets a row. Indicators read without subscribing to them only catch up at
+ * the end of each replayed batch.
+ */
 public abstract class Strategy {
 	final static Logger logger = LogManager.getLogger(Strategy.class.getName());
 	
 	protected DataManager dataManager;
 	protected FieldSeries<StrategyStats> series;
+	protected JsonObject parameters = new JsonObject();
+	
+	protected Position position = new Position();
+	protected ExecutionSimulator execution;
+	
+	private List<OHLCVSeries> candleSubscriptions = new ArrayList<OHLCVSeries>();
+	private List<FieldSeries<?>> indicatorSubscriptions = new ArrayList<FieldSeries<?>>();
+	private boolean tradeSubscription = false;
+	
+	/* tunables of a run, set before the data manager */
+	public void setParameters(JsonObject parameters) {
+		this.parameters = parameters;
+	}
+	
+	public JsonObject getParameters() {
+		return parameters;
+	}
+	
+	/* ranges a parameter sweep explores by default */
+	public ParameterSpace getParameterSpace() {
+		return new ParameterSpace();
+	}
 	
+	protected double getParameter(String name, double defaultValue) {
+		Number value = parameters.getNumber(name);
+		return value != null ? value.doubleValue() : defaultValue;
+	}
+	
+	protected int getParameter(String name, int defaultValue) {
+		Number value = parameters.getNumber(name);
+		return value != null ? value.intValue() : defaultValue;
+	}
 	
 	public void setDataManager(DataManager dataManager) {
 		this.dataManager = dataManager;
 		
 		series = new FieldSeries<StrategyStats>(StrategyStats.class, new JsonObject());
+		position = new Position();
+		
+		candleSubscriptions.clear();
+		indicatorSubscriptions.clear();
+		tradeSubscription = false;
 		
-		loadData();
+		register();
 	}
 	
-	public void tick() {
+	/* subscribes to the series the strategy reacts to, once per data manager */
+	protected void register() {}
+	
+	protected void subscribeTrades() {
+		tradeSubscription = true;
 	}
 	
-	public void candleEnd(int period) {
+	protected OHLCVSeries subscribeCandles(String symbol, int period) {
+		OHLCVSeries ohlcv = (OHLCVSeries) dataManager.getSeries(symbol, "OHLCV", period, new JsonObject());
+		if(!candleSubscriptions.contains(ohlcv)) candleSubscriptions.add(ohlcv);
+		
+		return ohlcv;
 	}
 	
-	protected void loadData() {}
+	protected <T extends Enum<T>> FieldSeries<T> subscribeIndicator(String symbol, Class<T> indicator, int period, JsonObject options) {
+		FieldSeries<T> series = dataManager.getSeries(symbol, indicator, period, options);
+		if(!indicatorSubscriptions.contains(series)) indicatorSubscriptions.add(series);
+		
+		return series;
+	}
+	
+	public boolean isSubscribedToTrades() {
+		return tradeSubscription;
+	}
+	
+	public List<OHLCVSeries> getCandleSubscriptions() {
+		return candleSubscriptions;
+	}
+	
+	public List<FieldSeries<?>> getIndicatorSubscriptions() {
+		return indicatorSubscriptions;
+	}
+	
+	public void onTrade(int timestamp, double price, double volume) {
+	}
+	
+	/* the closed candle is still the last one */
+	public void onCandleClose(int period) {
+	}
+	
+	public void onIndicatorUpdate(FieldSeries<?> indicator) {
+	}
 	
 	public FieldSeries<StrategyStats> getSeries() {
 		return series;
 	}
 	
+	public Position getPosition() {
+		return position;
+	}
+	
+	/* orders are filled by the simulation against the trades after them */
+	public void setExecution(ExecutionSimulator execution) {
+		this.execution = execution;
+	}
+	
+	public ExecutionSimulator getExecution() {
+		return execution;
+	}
+	
+	/* volume is signed, negative for sells; price is the limit or stop price */
+	protected Order submitOrder(Order.Type type, double volume, double price) {
+		if(execution == null) {
+			throw new IllegalStateException("Orders can only be placed in a simulation");
+		}
+		
+		return execution.submit(type, volume, price);
+	}
+	
+	protected Order submitMarketOrder(double volume) {
+		return submitOrder(Order.Type.Market, volume, Double.NaN);
+	}
+	
+	protected boolean cancelOrder(Order order) {
+		return execution != null && execution.cancel(order);
+	}
+	
+	/* called by the execution simulator, books the fill then tells the strategy */
+	public void bookFill(Order order, int timestamp, double price, double volume, double fee) {
+		addTrade(new Trade(timestamp, price, volume), fee);
+		onFill(order, price, volume);
+	}
+	
+	public void onFill(Order order, double price, double volume) {
+	}
+	
 	protected void addTrade(Trade trade) {
+		addTrade(trade, 0);
+	}
+	
+	/* books the fill on the position, fills of the same second share a stats row at their average price */
+	protected void addTrade(Trade trade, double fee) {
+		position.addFill(trade.getPrice(), trade.getVolume(), fee);
+		
 		int timestamp = trade.getTimestamp();
 		if(trade.getVolume() < 0) timestamp ++; // 1 second offset for sells so both show up on same tick
 		
 		try {
-			Map<StrategyStats, Double> row = series.getRow(timestamp);
-			if(!row.isEmpty()) {
-				double currentPrice = row.get(StrategyStats.Price);
-				double currentVolume = row.get(StrategyStats.Volume);
-				
-				double newVolume = currentVolume + trade.getVolume();
-				double newPrice = (currentPrice * currentVolume + trade.getPrice() * trade.getVolume()) / newVolume;
+			int index = series.indexOf(timestamp);
+			double price = trade.getPrice();
+			double volume = trade.getVolume();
+			
+			if(index >= 0) {
+				double currentPrice = series.getValueAt(index, StrategyStats.Price);
+				double currentVolume = series.getValueAt(index, StrategyStats.Volume);
 				
-				logger.info("updating position (" + currentPrice + ", " + currentVolume + ") -> (" + newPrice + ", " + newVolume + ")");
+				volume = currentVolume + trade.getVolume();
+				price = (currentPrice * currentVolume + trade.getPrice() * trade.getVolume()) / volume;
 				
-				series.addRow(timestamp, newPrice, newVolume);
+				logger.info("updating position (" + currentPrice + ", " + currentVolume + ") -> (" + price + ", " + volume + ")");
 			} else {
 				logger.info("adding new trade " + trade);
-				series.addRow(timestamp, trade.getPrice(), trade.getVolume());
 			}
+			
+			series.addRow(timestamp, price, volume, position.getVolume(), position.getAveragePrice(), position.getRealizedPnl(), position.getFees());
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -7,131 +7,212 @@ import io.hbar.fx.data.Trade;
 import io.hbar.fx.data.series.FieldSeries;
 import io.hbar.fx.data.series.types.OHLCV;
 import io.hbar.fx.data.series.types.SAR;
+import io.hbar.fx.data.store.TradeStore;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vertx.java.core.json.JsonObject;
 
-public class TestStrategy extends Strategy {
+/*
+ * Enters on short candle closes near the short SAR, in the direction of the long trend. Legs
+ * are liquidated on a stop loss or when the long trend turns. The long trend is only read on
+ * closed long candles, so the signals of a whole window can be read from its series at once.
+ */
+public class TestStrategy extends Strategy implements VectorizedStrategy {
 	final static String BULLISH = "bullish";
 	final static String BEARISH = "bearish";
 
+	final static String SYMBOL = "BTCUSD:Bitfinex";
+
 	final Logger logger = LogManager.getLogger(TestStrategy.class.getName());
 
-	final JsonObject NO_OPTIONS = new JsonObject();
-	final JsonObject SAR_OPTIONS = new JsonObject().putNumber("acceleration", 0.02).putNumber("maximum", 0.2);
-	final int PERIOD_SHORT = 3600;
-	final int PERIOD_LONG = 4 * PERIOD_SHORT;
+	JsonObject SAR_OPTIONS = new JsonObject().putNumber("acceleration", 0.02).putNumber("maximum", 0.2);
+	int PERIOD_SHORT = 3600;
+	int PERIOD_LONG = 4 * PERIOD_SHORT;
 
 	double BUY_THRESH = 0.01;
+	double STOP_LOSS = 0.005;
 
 	FieldSeries<OHLCV> ohlcvSeries1H, ohlcvSeries4H;
 	FieldSeries<SAR> sarSeries1H, sarSeries4H;
 	
+	/* long candles the trend was checked on, a cross is checked once per closed candle */
+	int longCandleCount;
+	
 	List<Leg> legs = new ArrayList<Leg>();
 
 	@Override
-	public void tick() {
-		loadData();
-		
+	public void setParameters(JsonObject parameters) {
+		super.setParameters(parameters);
+
+		SAR_OPTIONS = new JsonObject()
+			.putNumber("acceleration", getParameter("sarAcceleration", 0.02))
+			.putNumber("maximum", getParameter("sarMaximum", 0.2));
+		PERIOD_SHORT = getParameter("period", PERIOD_SHORT);
+		PERIOD_LONG = 4 * PERIOD_SHORT;
+
+		BUY_THRESH = getParameter("buyThreshold", BUY_THRESH);
+		STOP_LOSS = getParameter("stopLoss", STOP_LOSS);
+	}
+
+	@Override
+	public ParameterSpace getParameterSpace() {
+		return new ParameterSpace()
+			.range("buyThreshold", 0.005, 0.03, 0.005)
+			.range("stopLoss", 0.0025, 0.02, 0.0025)
+			.values("sarAcceleration", 0.01, 0.02, 0.03)
+			.values("sarMaximum", 0.1, 0.2, 0.3);
+	}
+
+	@Override
+	protected void register() {
+		ohlcvSeries1H = subscribeCandles(SYMBOL, PERIOD_SHORT);
+		ohlcvSeries4H = subscribeCandles(SYMBOL, PERIOD_LONG);
+
+		sarSeries1H = subscribeIndicator(SYMBOL, SAR.class, PERIOD_SHORT, SAR_OPTIONS);
+		sarSeries4H = subscribeIndicator(SYMBOL, SAR.class, PERIOD_LONG, SAR_OPTIONS);
+
+		longCandleCount = ohlcvSeries4H.size();
+
+		subscribeTrades();
+	}
+
+	@Override
+	public void onTrade(int timestamp, double price, double volume) {
 		Leg currentLeg = getCurrentLeg();
-		int currentTimestamp = ohlcvSeries1H.getLastTimestamp();
-		double currentPrice = ohlcvSeries1H.getValue(currentTimestamp, OHLCV.Close);
+		double currentPrice = ohlcvSeries1H.getLastValue(OHLCV.Close);
+		
+		/* the long candle before the last one just closed */
+		boolean longCross = false;
+		if (ohlcvSeries4H.size() != longCandleCount) {
+			longCandleCount = ohlcvSeries4H.size();
+			longCross = longSarCross(ohlcvSeries4H, sarSeries4H, longCandleCount - 2);
+		}
 		
 		/*** liquidate ***/
-		if (currentLeg != null && !currentLeg.liquidated && (longSarCross() 
-				|| (currentLeg.direction.equals(Leg.LONG) && currentPrice < currentLeg.getPrice() * 0.995)
-				|| (currentLeg.direction.equals(Leg.SHORT) && currentPrice > currentLeg.getPrice() * 1.005))) {
-			
-			
-			currentLeg.liquidated = true;
-			logger.info("liquidate @ " + currentPrice + "(position was: " + currentLeg.getVolume() + " @ " + currentLeg.getPrice() + ")");
-			
-			addTrade(new Trade(currentTimestamp, currentPrice, -currentLeg.getVolume()));
+		if (currentLeg != null && !currentLeg.liquidated && (longCross || stopLoss(currentLeg, currentPrice))) {
+			liquidate(currentLeg, currentPrice);
 		}
 	}
 
 	@Override
-	public void candleEnd(int period) {
-		loadData();
-		
+	public void onCandleClose(int period) {
 		if (period == PERIOD_SHORT) {
-			// if within buy thresh, buy!
-			int currentTimestamp = ohlcvSeries1H.getLastTimestamp();
-			double currentPrice = ohlcvSeries1H.getValue(currentTimestamp, OHLCV.Close);
-			double currentSar = sarSeries1H.getValue(currentTimestamp, SAR.Value);
-			double delta = (currentPrice - currentSar) / currentPrice;
-
-			if (Math.abs(delta) < BUY_THRESH) {
-				Leg currentLeg = getCurrentLeg();
-				
-				/* start new leg */
-				if(currentLeg == null || currentLeg.liquidated) {
-					currentLeg = new Leg(getLongTrend(currentTimestamp).equals(TestStrategy.BULLISH) ? Leg.LONG : Leg.SHORT);
-					
-					legs.add(currentLeg);
-					logger.info("new leg: " + currentLeg.direction);
-				}
-				
-				if(currentLeg.getVolume() == 0
-						|| (currentLeg.direction.equals(Leg.LONG) && currentPrice > currentLeg.previousTradePrice()) 
-						|| (currentLeg.direction.equals(Leg.SHORT) && currentPrice < currentLeg.previousTradePrice())) {
-					
-					Trade trade = new Trade(currentTimestamp, currentPrice, currentLeg.direction.equals(Leg.SHORT) ? -0.1 : 0.1);
-					currentLeg.addTrade(trade);
-					
-					addTrade(trade);
-					
-					logger.info("buy @ " + currentPrice + "(current position: " + currentLeg.getVolume() + " @ " + currentLeg.getPrice() + ")");
-				}
-			}
+			onCandleClose(ohlcvSeries1H.getLastTimestamp(), ohlcvSeries1H.getLastValue(OHLCV.Close));
 
 		} else if (period == PERIOD_LONG) {
 			
 		}
 	}
 
+	/*
+	 * The signals of the replay read from the whole window's series in one pass. At the first
+	 * trade of a short candle the previous one closes (entries), then the long candle it ended
+	 * if any (trend crosses), then stop losses are checked on the trades of candles whose range
+	 * reaches them.
+	 */
 	@Override
-	public void loadData() {
-		ohlcvSeries1H = getOHLCVSeries1H();
-		ohlcvSeries4H = getOHLCVSeries4H();
+	public void evaluate(int startIndex) {
+		int size = ohlcvSeries1H.size();
 
-		sarSeries1H = getSARSeries1H();
-		sarSeries4H = getSARSeries4H();
-	}
-	
-	private FieldSeries<OHLCV> getOHLCVSeries1H() {
-		return (FieldSeries<OHLCV>) dataManager.getSeries("BTCUSD:Bitfinex", OHLCV.class, PERIOD_SHORT, NO_OPTIONS);
+		TradeStore trades = dataManager.tradeData;
+		int[] timestamps = ohlcvSeries1H.getTimestampColumn();
+		double[] highs = ohlcvSeries1H.getColumn(OHLCV.High);
+		double[] lows = ohlcvSeries1H.getColumn(OHLCV.Low);
+		double[] closes = ohlcvSeries1H.getColumn(OHLCV.Close);
+
+		for (int i = 1; i < size; i++) {
+			int first = trades.ceilingIndex(timestamps[i]);
+			int end = i + 1 < size ? trades.ceilingIndex(timestamps[i + 1]) : trades.size();
+			if (end <= startIndex) continue;
+
+			if (first >= startIndex) {
+				execution.seek(first);
+				onCandleClose(timestamps[i - 1], closes[i - 1]);
+
+				Leg currentLeg = getCurrentLeg();
+				int longTimestamp = (timestamps[i - 1] / PERIOD_LONG) * PERIOD_LONG;
+
+				if (currentLeg != null && !currentLeg.liquidated && timestamps[i] / PERIOD_LONG != timestamps[i - 1] / PERIOD_LONG
+						&& longSarCross(ohlcvSeries4H, sarSeries4H, ohlcvSeries4H.indexOf(longTimestamp))) {
+					liquidate(currentLeg, trades.getPrice(first));
+				}
+			}
+
+			Leg currentLeg = getCurrentLeg();
+			if (currentLeg == null || currentLeg.liquidated || !(stopLoss(currentLeg, highs[i]) || stopLoss(currentLeg, lows[i]))) continue;
+
+			for (int j = Math.max(first, startIndex); j < end; j++) {
+				double price = trades.getPrice(j);
+
+				if (stopLoss(currentLeg, price)) {
+					execution.seek(j);
+					liquidate(currentLeg, price);
+					break;
+				}
+			}
+		}
 	}
-	
-	private FieldSeries<OHLCV> getOHLCVSeries4H() {
-		return (FieldSeries<OHLCV>) dataManager.getSeries("BTCUSD:Bitfinex", OHLCV.class, PERIOD_LONG, NO_OPTIONS);
+
+	/* if within buy thresh, buy! */
+	private void onCandleClose(int currentTimestamp, double currentPrice) {
+		double currentSar = sarSeries1H.getValue(currentTimestamp, SAR.Value);
+		double delta = (currentPrice - currentSar) / currentPrice;
+
+		if (Math.abs(delta) < BUY_THRESH) {
+			Leg currentLeg = getCurrentLeg();
+			
+			/* start new leg */
+			if(currentLeg == null || currentLeg.liquidated) {
+				/* the trend of the last long candle closed with this one */
+				int longTimestamp = ((currentTimestamp + PERIOD_SHORT) / PERIOD_LONG) * PERIOD_LONG - PERIOD_LONG;
+				
+				currentLeg = new Leg(getLongTrend(ohlcvSeries4H, sarSeries4H, longTimestamp).equals(TestStrategy.BULLISH) ? Leg.LONG : Leg.SHORT);
+				
+				legs.add(currentLeg);
+				logger.info("new leg: " + currentLeg.direction);
+			}
+			
+			if(currentLeg.getVolume() == 0
+					|| (currentLeg.direction.equals(Leg.LONG) && currentPrice > currentLeg.previousTradePrice()) 
+					|| (currentLeg.direction.equals(Leg.SHORT) && currentPrice < currentLeg.previousTradePrice())) {
+				
+				Trade trade = new Trade(currentTimestamp, currentPrice, currentLeg.direction.equals(Leg.SHORT) ? -0.1 : 0.1);
+				currentLeg.addTrade(trade);
+				
+				submitMarketOrder(trade.getVolume());
+				
+				logger.info("buy @ " + currentPrice + "(current position: " + currentLeg.getVolume() + " @ " + currentLeg.getPrice() + ")");
+			}
+		}
 	}
-	
-	private FieldSeries<SAR> getSARSeries1H() {
-		return (FieldSeries<SAR>) dataManager.getSeries("BTCUSD:Bitfinex", SAR.class, PERIOD_SHORT, SAR_OPTIONS);
+
+	private boolean stopLoss(Leg leg, double price) {
+		return (leg.direction.equals(Leg.LONG) && price < leg.getPrice() * (1 - STOP_LOSS))
+				|| (leg.direction.equals(Leg.SHORT) && price > leg.getPrice() * (1 + STOP_LOSS));
 	}
-	
-	private FieldSeries<SAR> getSARSeries4H() {
-		return (FieldSeries<SAR>) dataManager.getSeries("BTCUSD:Bitfinex", SAR.class, PERIOD_LONG, SAR_OPTIONS);
+
+	private void liquidate(Leg leg, double price) {
+		leg.liquidated = true;
+		logger.info("liquidate @ " + price + "(position was: " + leg.getVolume() + " @ " + leg.getPrice() + ")");
+		
+		submitMarketOrder(-leg.getVolume());
 	}
 
-	private boolean longSarCross() {
-		int currentTimestamp = ohlcvSeries4H.getLastTimestamp();
-		int previousTimestamp = ohlcvSeries4H.getPreviousTimestamp();
+	/* whether the trend turned between the long candle at index and the one before it */
+	private boolean longSarCross(FieldSeries<OHLCV> ohlcv, FieldSeries<SAR> sar, int index) {
+		if (index < 1) return false;
 
-		String previousTrend = getLongTrend(previousTimestamp);
-		String currentTrend = getLongTrend(currentTimestamp);
+		String previousTrend = getLongTrend(ohlcv, sar, ohlcv.getTimestampAt(index - 1));
+		String currentTrend = getLongTrend(ohlcv, sar, ohlcv.getTimestampAt(index));
 
 		return !currentTrend.equals(previousTrend);
 	}
 
-	private String getLongTrend(int timestamp) {
-		int t = ((int)(timestamp / PERIOD_LONG)) * PERIOD_LONG;
-		
-		double price = ohlcvSeries4H.getValue(t, OHLCV.Close);
-		double sar = sarSeries4H.getValue(t, SAR.Value);
-		return price < sar ? TestStrategy.BEARISH : TestStrategy.BULLISH;
+	private String getLongTrend(FieldSeries<OHLCV> ohlcv, FieldSeries<SAR> sar, int timestamp) {
+		double price = ohlcv.getValue(timestamp, OHLCV.Close);
+		double sarValue = sar.getValue(timestamp, SAR.Value);
+		return price < sarValue ? TestStrategy.BEARISH : TestStrategy.BULLISH;
 	}
 	
 	private Leg getCurrentLeg() {
@@ -152,6 +233,10 @@ public class TestStrategy extends Strategy {
 		
 		private TradeList tradeList = new TradeList();
 		
+		/* running volume and average price of the trades in the leg */
+		private double volume = 0;
+		private double price = 0;
+		
 		public Leg(String direction) {
 			this.direction = direction;
 		}
@@ -159,22 +244,17 @@ public class TestStrategy extends Strategy {
 		public void addTrade(Trade trade) {
 			tradeList.addTrade(trade);
 			lastTrade = trade;
+			
+			price = (price * volume + trade.getPrice() * trade.getVolume()) / (volume + trade.getVolume());
+			volume += trade.getVolume();
 		}
 		
 		public double getVolume() {
-			double v = 0;
-			for(Trade trade : tradeList.trades) v += trade.getVolume();
-			return v;
+			return volume;
 		}
 		
 		public double getPrice() {
-			double p = 0;
-			double v = 0;
-			for(Trade trade : tradeList.trades) {
-				p = (p * v + trade.getPrice() * trade.getVolume()) / (v + trade.getVolume());
-				v += trade.getVolume();
-			}
-			return p;
+			return price;
 		}
 		
 		public double previousTradePrice() {
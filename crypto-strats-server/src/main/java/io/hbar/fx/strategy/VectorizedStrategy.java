@@ -0,0 +1,14 @@
+package io.hbar.fx.strategy;
+
+/*
+ * Strategies that act on candle closes can be screened without replaying the trades. Their
+ * series span the whole window once they registered, evaluate() walks them in one pass and
+ * seeks the execution simulator forward to each trade it acts on, which fills the orders placed
+ * so far in time order. Trades before startIndex are warm up, a replay would not call back on
+ * them. Signals have to match the replay's, the series only show what it saw at closed candles.
+ */
+public interface VectorizedStrategy {
+
+	void evaluate(int startIndex);
+
+}
@@ -0,0 +1,93 @@
+package io.hbar.fx.ta;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.ta.incremental.IncrementalIndicator;
+import io.hbar.fx.ta.incremental.RecomputedIndicator;
+
+import org.vertx.java.core.json.JsonObject;
+
+import com.tictactec.ta.lib.MAType;
+
+/*
+ * Builds one indicator's series, resolved by name through the IndicatorRegistry. Options are
+ * checked by validate before anything is computed or cached.
+ */
+public abstract class IndicatorFactory<T extends Enum<T>> {
+	private String name;
+	private Class<T> type;
+
+	public IndicatorFactory(String name, Class<T> type) {
+		this.name = name;
+		this.type = type;
+	}
+
+	public FieldSeries<T> compute(OHLCVSeries ohlcv, JsonObject options) {
+		return compute(ohlcv, options, 0);
+	}
+
+	/* rows of the candles from startIndex on, see TaLib.windowStart */
+	public abstract FieldSeries<T> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex);
+
+	/* recomputes the rows of the candles from startIndex on into a cached series */
+	public void merge(FieldSeries<T> series, OHLCVSeries ohlcv, int startIndex) {
+		if (startIndex >= ohlcv.size()) return;
+
+		FieldSeries<T> window = compute(ohlcv, series.getOptions(), startIndex);
+		if (window == null) return;
+
+		T[] fields = series.getFields();
+		double[] row = new double[fields.length];
+
+		for (int index = 0; index < window.size(); index++) {
+			for (int i = 0; i < fields.length; i++) {
+				row[i] = window.getValueAt(index, fields[i]);
+			}
+
+			try {
+				series.addRowArray(window.getTimestampAt(index), row);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/* rolling update for the simulator, by default the full function rerun on every update */
+	public IncrementalIndicator<T> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+		return new RecomputedIndicator<T>(this, ohlcv, options);
+	}
+
+	public void validate(JsonObject options) throws IllegalArgumentException {
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	protected void requirePeriod(JsonObject options, String option, int min) {
+		Object value = options.getValue(option);
+		if (!(value instanceof Number) || ((Number) value).doubleValue() != ((Number) value).intValue() || ((Number) value).intValue() < min) {
+			throw new IllegalArgumentException(name + ": " + option + " must be an integer >= " + min + ", got " + value);
+		}
+	}
+
+	protected void requireNumber(JsonObject options, String option) {
+		Object value = options.getValue(option);
+		if (!(value instanceof Number) || Double.isNaN(((Number) value).doubleValue())) {
+			throw new IllegalArgumentException(name + ": " + option + " must be a number, got " + value);
+		}
+	}
+
+	protected void requireMAType(JsonObject options, String option) {
+		Object value = options.getValue(option);
+		try {
+			MAType.valueOf(TaLib.capFirst((String) value));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException(name + ": " + option + " must be a TA-Lib moving average type, got " + value);
+		}
+	}
+}
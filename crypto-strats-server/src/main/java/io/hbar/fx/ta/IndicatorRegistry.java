@@ -0,0 +1,258 @@
+package io.hbar.fx.ta;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.BBands;
+import io.hbar.fx.data.series.types.EMA;
+import io.hbar.fx.data.series.types.HilbertDominantCyclePeriod;
+import io.hbar.fx.data.series.types.HilbertDominantCyclePhase;
+import io.hbar.fx.data.series.types.HilbertTrendMode;
+import io.hbar.fx.data.series.types.HilbertTrendline;
+import io.hbar.fx.data.series.types.LinearReg;
+import io.hbar.fx.data.series.types.MACD;
+import io.hbar.fx.data.series.types.OHLCV;
+import io.hbar.fx.data.series.types.RSI;
+import io.hbar.fx.data.series.types.SAR;
+import io.hbar.fx.data.series.types.SMA;
+import io.hbar.fx.ta.incremental.BBandsIndicator;
+import io.hbar.fx.ta.incremental.EMAIndicator;
+import io.hbar.fx.ta.incremental.IncrementalIndicator;
+import io.hbar.fx.ta.incremental.LinearRegIndicator;
+import io.hbar.fx.ta.incremental.MACDIndicator;
+import io.hbar.fx.ta.incremental.RSIIndicator;
+import io.hbar.fx.ta.incremental.SARIndicator;
+import io.hbar.fx.ta.incremental.SMAIndicator;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+
+import com.tictactec.ta.lib.meta.CoreMetaData;
+import com.tictactec.ta.lib.meta.TaFuncService;
+
+/*
+ * Indicator names (case insensitive) to their factories, shared by the data server and the
+ * simulator. Besides the hand written wrappers every TA-Lib function is available under its
+ * TA-Lib name (ADX, STOCH, CDLDOJI...) as a TaFunction series.
+ */
+public class IndicatorRegistry {
+	private static Map<String, IndicatorFactory<?>> factories = new ConcurrentHashMap<String, IndicatorFactory<?>>();
+
+	static {
+		register(new IndicatorFactory<SMA>("SMA", SMA.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requirePeriod(options, "period", 2);
+			}
+
+			@Override
+			public FieldSeries<SMA> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.sma(ohlcv, options, OHLCV.Close, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<SMA> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				return new SMAIndicator(ohlcv, options, OHLCV.Close);
+			}
+		});
+
+		register(new IndicatorFactory<EMA>("EMA", EMA.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requirePeriod(options, "period", 2);
+			}
+
+			@Override
+			public FieldSeries<EMA> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.ema(ohlcv, options, OHLCV.Close, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<EMA> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				return new EMAIndicator(ohlcv, options, OHLCV.Close);
+			}
+		});
+
+		register(new IndicatorFactory<RSI>("RSI", RSI.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requirePeriod(options, "period", 2);
+			}
+
+			@Override
+			public FieldSeries<RSI> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.rsi(ohlcv, options, OHLCV.Close, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<RSI> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				return new RSIIndicator(ohlcv, options, OHLCV.Close);
+			}
+		});
+
+		register(new IndicatorFactory<MACD>("MACD", MACD.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requirePeriod(options, "slowPeriod", 2);
+				requirePeriod(options, "fastPeriod", 2);
+				requirePeriod(options, "signalPeriod", 1);
+			}
+
+			@Override
+			public FieldSeries<MACD> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.macd(ohlcv, options, OHLCV.Close, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<MACD> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				return new MACDIndicator(ohlcv, options, OHLCV.Close);
+			}
+		});
+
+		register(new IndicatorFactory<BBands>("BBands", BBands.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requirePeriod(options, "period", 2);
+				requireNumber(options, "deviationUp");
+				requireNumber(options, "deviationDown");
+				requireMAType(options, "maType");
+			}
+
+			@Override
+			public FieldSeries<BBands> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.bbands(ohlcv, options, OHLCV.Close, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<BBands> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				if ("sma".equalsIgnoreCase(options.getString("maType"))) {
+					return new BBandsIndicator(ohlcv, options, OHLCV.Close);
+				}
+				return super.createIncremental(ohlcv, options);
+			}
+		});
+
+		register(new IndicatorFactory<SAR>("SAR", SAR.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requireNumber(options, "acceleration");
+				requireNumber(options, "maximum");
+			}
+
+			@Override
+			public FieldSeries<SAR> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.sar(ohlcv, options, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<SAR> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				return new SARIndicator(ohlcv, options);
+			}
+		});
+
+		register(new IndicatorFactory<LinearReg>("LinearReg", LinearReg.class) {
+			@Override
+			public void validate(JsonObject options) {
+				requirePeriod(options, "period", 2);
+			}
+
+			@Override
+			public FieldSeries<LinearReg> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.linearreg(ohlcv, options, OHLCV.Close, startIndex);
+			}
+
+			@Override
+			public IncrementalIndicator<LinearReg> createIncremental(OHLCVSeries ohlcv, JsonObject options) {
+				return new LinearRegIndicator(ohlcv, options, OHLCV.Close);
+			}
+		});
+
+		register(new IndicatorFactory<HilbertDominantCyclePeriod>("HilbertDominantCyclePeriod", HilbertDominantCyclePeriod.class) {
+			@Override
+			public FieldSeries<HilbertDominantCyclePeriod> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.hilbertdominantcycleperiod(ohlcv, options, OHLCV.Close, startIndex);
+			}
+		});
+
+		register(new IndicatorFactory<HilbertDominantCyclePhase>("HilbertDominantCyclePhase", HilbertDominantCyclePhase.class) {
+			@Override
+			public FieldSeries<HilbertDominantCyclePhase> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.hilbertdominantcyclephase(ohlcv, options, OHLCV.Close, startIndex);
+			}
+		});
+
+		register(new IndicatorFactory<HilbertTrendline>("HilbertTrendline", HilbertTrendline.class) {
+			@Override
+			public FieldSeries<HilbertTrendline> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.hilberttrendline(ohlcv, options, OHLCV.Close, startIndex);
+			}
+		});
+
+		register(new IndicatorFactory<HilbertTrendMode>("HilbertTrendMode", HilbertTrendMode.class) {
+			@Override
+			public FieldSeries<HilbertTrendMode> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+				return TaLib.hilberttrendmode(ohlcv, options, OHLCV.Close, startIndex);
+			}
+		});
+
+		/* every other TA-Lib function through its metadata, the wrappers above take precedence */
+		try {
+			CoreMetaData.forEachFunc(new TaFuncService() {
+				@Override
+				public void execute(CoreMetaData meta) {
+					if (!contains(meta.getFuncInfo().name()) && TaFunctionFactory.isSupported(meta)) {
+						register(new TaFunctionFactory(meta));
+					}
+				}
+			});
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public static void register(IndicatorFactory<?> factory) {
+		factories.put(factory.getName().toLowerCase(), factory);
+	}
+
+	/* throws IllegalArgumentException for unknown indicators */
+	public static IndicatorFactory<?> get(String indicator) {
+		IndicatorFactory<?> factory = factories.get(indicator);
+		if (factory == null) {
+			factory = factories.get(indicator.toLowerCase());
+		}
+
+		if (factory == null) {
+			throw new IllegalArgumentException("unknown indicator " + indicator);
+		}
+
+		return factory;
+	}
+
+	public static boolean contains(String indicator) {
+		return factories.containsKey(indicator.toLowerCase());
+	}
+
+	public static Collection<IndicatorFactory<?>> getFactories() {
+		return factories.values();
+	}
+
+	/* names of the hand written indicators plus the description of every generic TA-Lib function */
+	public static JsonObject describe() {
+		JsonArray indicators = new JsonArray();
+		JsonArray functions = new JsonArray();
+
+		for (IndicatorFactory<?> factory : new TreeMap<String, IndicatorFactory<?>>(factories).values()) {
+			if (factory instanceof TaFunctionFactory) {
+				functions.addObject(((TaFunctionFactory) factory).describe());
+			} else {
+				indicators.addString(factory.getName());
+			}
+		}
+
+		return new JsonObject().putArray("indicators", indicators).putArray("functions", functions);
+	}
+}
@@ -0,0 +1,313 @@
+package io.hbar.fx.ta;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.OHLCV;
+import io.hbar.fx.data.series.types.TaFunction;
+
+import java.util.Arrays;
+
+import org.vertx.java.core.json.JsonArray;
+import org.vertx.java.core.json.JsonObject;
+
+import com.tictactec.ta.lib.MAType;
+import com.tictactec.ta.lib.MInteger;
+import com.tictactec.ta.lib.meta.CoreMetaData;
+import com.tictactec.ta.lib.meta.annotation.FuncInfo;
+import com.tictactec.ta.lib.meta.annotation.InputParameterInfo;
+import com.tictactec.ta.lib.meta.annotation.InputParameterType;
+import com.tictactec.ta.lib.meta.annotation.IntegerList;
+import com.tictactec.ta.lib.meta.annotation.IntegerRange;
+import com.tictactec.ta.lib.meta.annotation.OptInputParameterInfo;
+import com.tictactec.ta.lib.meta.annotation.OptInputParameterType;
+import com.tictactec.ta.lib.meta.annotation.OutputParameterInfo;
+import com.tictactec.ta.lib.meta.annotation.OutputParameterType;
+import com.tictactec.ta.lib.meta.annotation.RealList;
+import com.tictactec.ta.lib.meta.annotation.RealRange;
+
+/*
+ * Any TA-Lib function driven through its CoreMetaData. Options are named after the opt inputs
+ * without their prefix (optInTimePeriod -> timePeriod, optInMAType -> MAType), real inputs
+ * pick an OHLCV field the same way (inReal -> real, defaults to Close). Outputs fill the
+ * TaFunction fields in order, unused ones are NaN.
+ *
+ * CoreMetaData instances are shared and hold the call parameters, so calls lock on them. The
+ * output and open interest buffers live with the factory and only grow. Functions are always
+ * recomputed from the first candle since the metadata does not tell which ones are recursive.
+ */
+public class TaFunctionFactory extends IndicatorFactory<TaFunction> {
+	private final static int MAX_OUTPUTS = TaFunction.values().length;
+
+	private CoreMetaData meta;
+	private FuncInfo info;
+
+	private InputParameterInfo[] inputs;
+	private String[] inputNames;
+	private OptInputParameterInfo[] optInputs;
+	private String[] optInputNames;
+	private OutputParameterInfo[] outputs;
+
+	private double[][] realOutputs;
+	private int[][] integerOutputs;
+	private double[] openInterest = new double[0];
+
+	public TaFunctionFactory(CoreMetaData meta) {
+		super(meta.getFuncInfo().name(), TaFunction.class);
+
+		this.meta = meta;
+		this.info = meta.getFuncInfo();
+
+		inputs = new InputParameterInfo[info.nbInput()];
+		inputNames = new String[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = meta.getInputParameterInfo(i);
+			inputNames[i] = optionName(inputs[i].paramName(), "in");
+		}
+
+		optInputs = new OptInputParameterInfo[info.nbOptInput()];
+		optInputNames = new String[optInputs.length];
+		for (int i = 0; i < optInputs.length; i++) {
+			optInputs[i] = meta.getOptInputParameterInfo(i);
+			optInputNames[i] = optionName(optInputs[i].paramName(), "optIn");
+		}
+
+		outputs = new OutputParameterInfo[info.nbOutput()];
+		realOutputs = new double[outputs.length][0];
+		integerOutputs = new int[outputs.length][0];
+		for (int i = 0; i < outputs.length; i++) {
+			outputs[i] = meta.getOutputParameterInfo(i);
+		}
+	}
+
+	public static boolean isSupported(CoreMetaData meta) {
+		FuncInfo info = meta.getFuncInfo();
+		if (info.nbOutput() > MAX_OUTPUTS) return false;
+
+		for (int i = 0; i < info.nbInput(); i++) {
+			if (meta.getInputParameterInfo(i).type() == InputParameterType.TA_Input_Integer) return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public void validate(JsonObject options) {
+		for (int i = 0; i < inputs.length; i++) {
+			if (inputs[i].type() == InputParameterType.TA_Input_Real) {
+				getInputField(options, i);
+			}
+		}
+
+		for (int i = 0; i < optInputs.length; i++) {
+			Object value = options.getValue(optInputNames[i]);
+			if (value == null) continue;
+
+			if (!isValid(i, value)) {
+				throw new IllegalArgumentException(getName() + ": invalid " + optInputNames[i] + " " + value);
+			}
+		}
+	}
+
+	@Override
+	public FieldSeries<TaFunction> compute(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+		int size = ohlcv.size();
+		/* TA-Lib does not flag every recursive function (MACD, DEMA...) as unstable, so none is windowed */
+		int begIdx = TaLib.windowStart(startIndex, TaLib.FULL_HISTORY);
+		int capacity = ohlcv.getTimestampColumn().length;
+
+		MInteger outBegIdx = new MInteger();
+		MInteger outNbElement = new MInteger();
+
+		synchronized (meta) {
+			try {
+				for (int i = 0; i < optInputs.length; i++) {
+					setOptInput(i, options.getValue(optInputNames[i]));
+				}
+
+				FieldSeries<TaFunction> series = new FieldSeries<TaFunction>(TaFunction.class, options, size - Math.min(Math.max(startIndex, meta.getLookback()), size));
+				if (size == 0 || startIndex >= size) return series;
+
+				for (int i = 0; i < inputs.length; i++) {
+					if (inputs[i].type() == InputParameterType.TA_Input_Price) {
+						if (openInterest.length != capacity) openInterest = new double[capacity];
+
+						meta.setInputParamPrice(i, ohlcv.getColumn(OHLCV.Open), ohlcv.getColumn(OHLCV.High), ohlcv.getColumn(OHLCV.Low),
+								ohlcv.getColumn(OHLCV.Close), ohlcv.getColumn(OHLCV.Volume), openInterest);
+					} else {
+						meta.setInputParamReal(i, ohlcv.getColumn(getInputField(options, i)));
+					}
+				}
+
+				for (int i = 0; i < outputs.length; i++) {
+					if (outputs[i].type() == OutputParameterType.TA_Output_Real) {
+						if (realOutputs[i].length < size) realOutputs[i] = new double[capacity];
+						meta.setOutputParamReal(i, realOutputs[i]);
+					} else {
+						if (integerOutputs[i].length < size) integerOutputs[i] = new int[capacity];
+						meta.setOutputParamInteger(i, integerOutputs[i]);
+					}
+				}
+
+				meta.callFunc(begIdx, size - 1, outBegIdx, outNbElement);
+
+				int[] timestamps = ohlcv.getTimestampColumn();
+				double[] row = new double[MAX_OUTPUTS];
+				Arrays.fill(row, Double.NaN);
+
+				for (int i = Math.max(startIndex - outBegIdx.value, 0); i < outNbElement.value; i++) {
+					for (int j = 0; j < outputs.length; j++) {
+						row[j] = outputs[j].type() == OutputParameterType.TA_Output_Real ? realOutputs[j][i] : integerOutputs[j][i];
+					}
+
+					series.addRowArray(timestamps[outBegIdx.value + i], row);
+				}
+
+				return series;
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		return null;
+	}
+
+	/* candles consumed before the first output with these options */
+	public int getLookback(JsonObject options) {
+		synchronized (meta) {
+			try {
+				for (int i = 0; i < optInputs.length; i++) {
+					setOptInput(i, options.getValue(optInputNames[i]));
+				}
+
+				return meta.getLookback();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		return 0;
+	}
+
+	public JsonObject describe() {
+		JsonArray inputList = new JsonArray();
+		for (int i = 0; i < inputs.length; i++) {
+			inputList.addString(inputs[i].type() == InputParameterType.TA_Input_Real ? inputNames[i] : inputs[i].paramName());
+		}
+
+		JsonArray optionList = new JsonArray();
+		for (int i = 0; i < optInputs.length; i++) {
+			JsonObject option = new JsonObject()
+				.putString("name", optInputNames[i])
+				.putString("displayName", optInputs[i].displayName());
+
+			switch (optInputs[i].type()) {
+			case TA_OptInput_IntegerRange:
+				IntegerRange integerRange = meta.getOptInputIntegerRange(i);
+				option.putNumber("default", integerRange.defaultValue()).putNumber("min", integerRange.min()).putNumber("max", integerRange.max());
+				break;
+			case TA_OptInput_RealRange:
+				RealRange realRange = meta.getOptInputRealRange(i);
+				option.putNumber("default", realRange.defaultValue()).putNumber("min", realRange.min()).putNumber("max", realRange.max());
+				break;
+			case TA_OptInput_IntegerList:
+				IntegerList integerList = meta.getOptInputIntegerList(i);
+				option.putNumber("default", integerList.defaultValue()).putArray("values", new JsonArray(integerList.string()));
+				break;
+			case TA_OptInput_RealList:
+				RealList realList = meta.getOptInputRealList(i);
+				option.putNumber("default", realList.defaultValue()).putArray("values", new JsonArray(realList.string()));
+				break;
+			}
+
+			optionList.addObject(option);
+		}
+
+		JsonArray outputList = new JsonArray();
+		for (int i = 0; i < outputs.length; i++) {
+			outputList.addString(outputs[i].paramName());
+		}
+
+		return new JsonObject()
+			.putString("name", getName())
+			.putString("group", info.group())
+			.putString("hint", info.hint())
+			.putArray("inputs", inputList)
+			.putArray("options", optionList)
+			.putArray("outputs", outputList);
+	}
+
+	private OHLCV getInputField(JsonObject options, int index) {
+		String field = options.getString(inputNames[index]);
+		if (field == null) return OHLCV.Close;
+
+		for (OHLCV value : OHLCV.values()) {
+			if (value.name().equalsIgnoreCase(field)) return value;
+		}
+
+		throw new IllegalArgumentException(getName() + ": " + inputNames[index] + " must be an OHLCV field, got " + field);
+	}
+
+	private boolean isValid(int index, Object value) {
+		OptInputParameterType type = optInputs[index].type();
+
+		if (type == OptInputParameterType.TA_OptInput_IntegerList && value instanceof String) {
+			return toMAType((String) value) != null;
+		}
+		if (!(value instanceof Number)) return false;
+
+		double number = ((Number) value).doubleValue();
+
+		switch (type) {
+		case TA_OptInput_IntegerRange:
+			IntegerRange integerRange = meta.getOptInputIntegerRange(index);
+			return number == Math.rint(number) && number >= integerRange.min() && number <= integerRange.max();
+		case TA_OptInput_RealRange:
+			RealRange realRange = meta.getOptInputRealRange(index);
+			return number >= realRange.min() && number <= realRange.max();
+		case TA_OptInput_IntegerList:
+			for (int entry : meta.getOptInputIntegerList(index).value()) {
+				if (entry == number) return true;
+			}
+			return false;
+		case TA_OptInput_RealList:
+			for (double entry : meta.getOptInputRealList(index).value()) {
+				if (entry == number) return true;
+			}
+			return false;
+		default:
+			return false;
+		}
+	}
+
+	/* every opt input is set explicitly, the integer lists are MA types passed as MAType */
+	private void setOptInput(int index, Object value) {
+		switch (optInputs[index].type()) {
+		case TA_OptInput_IntegerRange:
+			meta.setOptInputParamInteger(index, value != null ? ((Number) value).intValue() : meta.getOptInputIntegerRange(index).defaultValue());
+			break;
+		case TA_OptInput_RealRange:
+			meta.setOptInputParamReal(index, value != null ? ((Number) value).doubleValue() : meta.getOptInputRealRange(index).defaultValue());
+			break;
+		case TA_OptInput_IntegerList:
+			MAType maType = value instanceof String ? toMAType((String) value)
+					: MAType.values()[value != null ? ((Number) value).intValue() : meta.getOptInputIntegerList(index).defaultValue()];
+			meta.setOptInputParamInteger(index, maType.name());
+			break;
+		case TA_OptInput_RealList:
+			meta.setOptInputParamReal(index, value != null ? ((Number) value).doubleValue() : meta.getOptInputRealList(index).defaultValue());
+			break;
+		}
+	}
+
+	private static MAType toMAType(String value) {
+		for (MAType maType : MAType.values()) {
+			if (maType.name().equalsIgnoreCase(value)) return maType;
+		}
+		return null;
+	}
+
+	private static String optionName(String paramName, String prefix) {
+		String name = paramName.startsWith(prefix) ? paramName.substring(prefix.length()) : paramName;
+		return name.length() > 1 && Character.isUpperCase(name.charAt(1)) ? name : name.substring(0, 1).toLowerCase() + name.substring(1);
+	}
+}
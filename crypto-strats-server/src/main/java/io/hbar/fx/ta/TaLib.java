@@ -15,9 +15,6 @@ import io.hbar.fx.data.series.types.RSI;
 import io.hbar.fx.data.series.types.SAR;
 import io.hbar.fx.data.series.types.SMA;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 import org.vertx.java.core.json.JsonObject;
 
 import com.tictactec.ta.lib.Core;
@@ -28,19 +25,36 @@ import com.tictactec.ta.lib.RetCode;
 public class TaLib {
 	public static Core core = new Core();
 	
+	/*
+	 * Recursive smoothing keeps (1 - alpha)^n of the error of its seed after n candles, these
+	 * multiples of the period bring it below 1e-12 for EMA style (alpha 2 / (period + 1)) and
+	 * Wilder style (alpha 1 / period) smoothing.
+	 */
+	final static int EMA_CONVERGENCE = 14;
+	final static int WILDER_CONVERGENCE = 28;
+	
+	/* warm up of functions that never forget their seed (SAR, adaptive averages, Hilbert transforms) */
+	public final static int FULL_HISTORY = Integer.MAX_VALUE;
+	
 	public static FieldSeries<SMA> sma(OHLCVSeries ohlcv, JsonObject options) {
-		return ma(SMA.class, ohlcv, options, OHLCV.Close);
+		return ma(SMA.class, ohlcv, options, OHLCV.Close, 0);
 	}
 	public static FieldSeries<SMA> sma(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		return ma(SMA.class, ohlcv, options, field);
+		return ma(SMA.class, ohlcv, options, field, 0);
+	}
+	public static FieldSeries<SMA> sma(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		return ma(SMA.class, ohlcv, options, field, startIndex);
 	}
 	
 	
 	public static FieldSeries<EMA> ema(OHLCVSeries ohlcv, JsonObject options) {
-		return ma(EMA.class, ohlcv, options, OHLCV.Close);
+		return ma(EMA.class, ohlcv, options, OHLCV.Close, 0);
 	}
 	public static FieldSeries<EMA> ema(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		return ma(EMA.class, ohlcv, options, field);
+		return ma(EMA.class, ohlcv, options, field, 0);
+	}
+	public static FieldSeries<EMA> ema(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		return ma(EMA.class, ohlcv, options, field, startIndex);
 	}
 	
 	
@@ -48,29 +62,32 @@ public class TaLib {
 //		return null;
 //	}
 	
-	private static <T extends Enum<T>> FieldSeries<T> ma(Class<T> maType, OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+	private static <T extends Enum<T>> FieldSeries<T> ma(Class<T> maType, OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
 		int period = options.getInteger("period");
 		
-        double outReal[] = new double[inReal.length];
+        double outReal[] = new double[size];
+        
+        int begIdx = windowStart(startIndex, maType == SMA.class ? core.smaLookback(period) : core.emaLookback(period), maType == SMA.class ? 0 : EMA_CONVERGENCE * (period + 1));
         
         MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        Method maMethod;
-        RetCode code = null;
+        RetCode code;
         
-		try {
-			maMethod = Core.class.getMethod(maType.getSimpleName().toLowerCase(), int.class, int.class, double[].class, int.class, MInteger.class, MInteger.class, double[].class);
-			code = (RetCode) maMethod.invoke(core, 0, inReal.length-1, inReal, period, outBegIdx, outNbElement, outReal);
-		} catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
-		}
+        if(maType == SMA.class) {
+        	code = core.sma(begIdx, size-1, inReal, period, outBegIdx, outNbElement, outReal);
+        } else if(maType == EMA.class) {
+        	code = core.ema(begIdx, size-1, inReal, period, outBegIdx, outNbElement, outReal);
+        } else {
+        	throw new IllegalArgumentException("unsupported moving average " + maType.getSimpleName());
+        }
         
         if(code != RetCode.Success) return null;
         
-        FieldSeries<T> s = createSeries(maType, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+        FieldSeries<T> s = createSeries(maType, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
         
         return s;
 	}
@@ -79,20 +96,26 @@ public class TaLib {
 		return TaLib.rsi(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<RSI> rsi(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return rsi(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<RSI> rsi(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
 		int period = options.getInteger("period");
 		
-        double outReal[] = new double[inReal.length];
+        double outReal[] = new double[size];
+        
+        int begIdx = windowStart(startIndex, core.rsiLookback(period), WILDER_CONVERGENCE * period);
         
         MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        RetCode code = core.rsi(0, inReal.length-1, inReal, period, outBegIdx, outNbElement, outReal);
+        RetCode code = core.rsi(begIdx, size-1, inReal, period, outBegIdx, outNbElement, outReal);
         
         if(code != RetCode.Success) return null;
         
-        FieldSeries<RSI> s = createSeries(RSI.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+        FieldSeries<RSI> s = createSeries(RSI.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
         
         return s;
 	}
@@ -103,66 +126,85 @@ public class TaLib {
 		return macd(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<MACD> macd(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return macd(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<MACD> macd(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
 		int slowPeriod = options.getInteger("slowPeriod");
 		int fastPeriod = options.getInteger("fastPeriod");
 		int signalPeriod = options.getInteger("signalPeriod");
 		
-		double outMACD[] = new double[inReal.length];
-		double outSignal[] = new double[inReal.length];
-		double outHistogram[] = new double[inReal.length];
+		double outMACD[] = new double[size];
+		double outSignal[] = new double[size];
+		double outHistogram[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, core.macdLookback(fastPeriod, slowPeriod, signalPeriod),
+				EMA_CONVERGENCE * (Math.max(fastPeriod, slowPeriod) + signalPeriod + 2));
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-		RetCode code = core.macd(0, inReal.length-1, inReal, slowPeriod, fastPeriod, signalPeriod, outBegIdx, outNbElement, outMACD, outSignal, outHistogram);
+		RetCode code = core.macd(begIdx, size-1, inReal, slowPeriod, fastPeriod, signalPeriod, outBegIdx, outNbElement, outMACD, outSignal, outHistogram);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(MACD.class, options, outBegIdx.value, ohlcv.getTimestamps(), outMACD, outSignal, outHistogram);
+		return createSeries(MACD.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outMACD, outSignal, outHistogram);
 	}
 	
 	public static FieldSeries<BBands> bbands(OHLCVSeries ohlcv, JsonObject options) {
 		return bbands(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<BBands> bbands(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return bbands(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<BBands> bbands(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
 		int inPeriod = options.getInteger("period");
-		double optInNbDevUp = options.getInteger("deviationUp");
-		double optInNbDevDn = options.getInteger("deviationDown");
+		double optInNbDevUp = options.getNumber("deviationUp").doubleValue();
+		double optInNbDevDn = options.getNumber("deviationDown").doubleValue();
 		MAType inMAType =  MAType.valueOf(capFirst(options.getString("maType")));
 		
-		double upper[] = new double[inReal.length];
-		double middle[] = new double[inReal.length];
-		double lower[] = new double[inReal.length];
+		double upper[] = new double[size];
+		double middle[] = new double[size];
+		double lower[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, core.bbandsLookback(inPeriod, optInNbDevUp, optInNbDevDn, inMAType), maConvergence(inMAType, inPeriod));
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-		RetCode code = core.bbands(0, inReal.length-1, inReal, inPeriod, optInNbDevUp, optInNbDevDn, inMAType, outBegIdx, outNbElement, upper, lower, middle);
+		RetCode code = core.bbands(begIdx, size-1, inReal, inPeriod, optInNbDevUp, optInNbDevDn, inMAType, outBegIdx, outNbElement, upper, lower, middle);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(BBands.class, options, outBegIdx.value, ohlcv.getTimestamps(), upper, lower, middle);
+		return createSeries(BBands.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), upper, lower, middle);
 	}
 	
 	
 	public static FieldSeries<SAR> sar(OHLCVSeries ohlcv, JsonObject options) {
-		double inHigh[] = ohlcv.getSeries(OHLCV.High);
-		double inLow[] = ohlcv.getSeries(OHLCV.Low);
+		return sar(ohlcv, options, 0);
+	}
+	public static FieldSeries<SAR> sar(OHLCVSeries ohlcv, JsonObject options, int startIndex) {
+		double inHigh[] = ohlcv.getColumn(OHLCV.High);
+		double inLow[] = ohlcv.getColumn(OHLCV.Low);
+		int size = ohlcv.size();
 		
 		double optInAcceleration = options.getNumber("acceleration").doubleValue();
 		double optInMaximum = options.getNumber("maximum").doubleValue();
 		
-		double outReal[] = new double[inHigh.length];
+		double outReal[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, FULL_HISTORY);
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-		RetCode code = core.sar(0, inHigh.length-1, inHigh, inLow, optInAcceleration, optInMaximum, outBegIdx, outNbElement, outReal);
+		RetCode code = core.sar(begIdx, size-1, inHigh, inLow, optInAcceleration, optInMaximum, outBegIdx, outNbElement, outReal);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(SAR.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+		return createSeries(SAR.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
 	}
 	
 	
@@ -171,36 +213,48 @@ public class TaLib {
 		return linearreg(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<LinearReg> linearreg(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return linearreg(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<LinearReg> linearreg(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
 		int inPeriod = options.getInteger("period");
 		
-		double outReal[] = new double[inReal.length];
+		double outReal[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, core.linearRegLookback(inPeriod), 0);
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        RetCode code = core.linearReg(0, inReal.length-1, inReal, inPeriod, outBegIdx, outNbElement, outReal);
+        RetCode code = core.linearReg(begIdx, size-1, inReal, inPeriod, outBegIdx, outNbElement, outReal);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(LinearReg.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+		return createSeries(LinearReg.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
 	}
 	
 	public static FieldSeries<HilbertDominantCyclePeriod> hilbertdominantcycleperiod(OHLCVSeries ohlcv, JsonObject options) {
 		return hilbertdominantcycleperiod(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<HilbertDominantCyclePeriod> hilbertdominantcycleperiod(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return hilbertdominantcycleperiod(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<HilbertDominantCyclePeriod> hilbertdominantcycleperiod(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
+		
+		double outReal[] = new double[size];
 		
-		double outReal[] = new double[inReal.length];
+		int begIdx = windowStart(startIndex, FULL_HISTORY);
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        RetCode code = core.htDcPeriod(0, inReal.length-1, inReal, outBegIdx, outNbElement, outReal);
+        RetCode code = core.htDcPeriod(begIdx, size-1, inReal, outBegIdx, outNbElement, outReal);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(HilbertDominantCyclePeriod.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+		return createSeries(HilbertDominantCyclePeriod.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
 	}
 	
 	
@@ -208,65 +262,117 @@ public class TaLib {
 		return hilbertdominantcyclephase(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<HilbertDominantCyclePhase> hilbertdominantcyclephase(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return hilbertdominantcyclephase(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<HilbertDominantCyclePhase> hilbertdominantcyclephase(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
-		double outReal[] = new double[inReal.length];
+		double outReal[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, FULL_HISTORY);
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        RetCode code = core.htDcPhase(0, inReal.length-1, inReal, outBegIdx, outNbElement, outReal);
+        RetCode code = core.htDcPhase(begIdx, size-1, inReal, outBegIdx, outNbElement, outReal);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(HilbertDominantCyclePhase.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+		return createSeries(HilbertDominantCyclePhase.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
 	}
 	
 	public static FieldSeries<HilbertTrendline> hilberttrendline(OHLCVSeries ohlcv, JsonObject options) {
 		return hilberttrendline(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<HilbertTrendline> hilberttrendline(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return hilberttrendline(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<HilbertTrendline> hilberttrendline(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
-		double outReal[] = new double[inReal.length];
+		double outReal[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, FULL_HISTORY);
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        RetCode code = core.htTrendline(0, inReal.length-1, inReal, outBegIdx, outNbElement, outReal);
+        RetCode code = core.htTrendline(begIdx, size-1, inReal, outBegIdx, outNbElement, outReal);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(HilbertTrendline.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+		return createSeries(HilbertTrendline.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
 	}
 	
 	public static FieldSeries<HilbertTrendMode> hilberttrendmode(OHLCVSeries ohlcv, JsonObject options) {
 		return hilberttrendmode(ohlcv, options, OHLCV.Close);
 	}
 	public static FieldSeries<HilbertTrendMode> hilberttrendmode(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
-		double inReal[] = ohlcv.getSeries(field);
+		return hilberttrendmode(ohlcv, options, field, 0);
+	}
+	public static FieldSeries<HilbertTrendMode> hilberttrendmode(OHLCVSeries ohlcv, JsonObject options, OHLCV field, int startIndex) {
+		double inReal[] = ohlcv.getColumn(field);
+		int size = ohlcv.size();
 		
-		double outReal[] = new double[inReal.length];
+		double outReal[] = new double[size];
+		
+		int begIdx = windowStart(startIndex, FULL_HISTORY);
 		
 		MInteger outBegIdx = new MInteger();
         MInteger outNbElement = new MInteger();
         
-        RetCode code = core.htTrendMode(0, inReal.length-1, inReal, outBegIdx, outNbElement, outReal);
+        RetCode code = core.htTrendMode(begIdx, size-1, inReal, outBegIdx, outNbElement, outReal);
 		if( code != RetCode.Success ) return null;
 		
-		return createSeries(HilbertTrendMode.class, options, outBegIdx.value, ohlcv.getTimestamps(), outReal);
+		return createSeries(HilbertTrendMode.class, options, startIndex, outBegIdx.value, outNbElement.value, ohlcv.getTimestampColumn(), outReal);
 	}
 	
 	
-	private static <T extends Enum<T>> FieldSeries<T> createSeries(Class<T> fields, JsonObject options, int begIndex, int[] timestamps, double[]... values) {
-		FieldSeries<T> series = new FieldSeries<T>(fields, options);
+	/*
+	 * First index handed to Core for outputs from startIndex on. The warm up is the function's
+	 * lookback plus, for recursive ones, the candles it takes to converge to the values of the
+	 * full history, so merged windows match what a full computation wrote.
+	 */
+	static int windowStart(int startIndex, int warmup) {
+		return startIndex > 0 ? Math.max(startIndex - warmup, 0) : 0;
+	}
+	
+	static int windowStart(int startIndex, int lookback, int convergence) {
+		return windowStart(startIndex, (int) Math.min((long) lookback + convergence, FULL_HISTORY));
+	}
+	
+	/* candles a moving average of the type needs to forget its seed */
+	static int maConvergence(MAType type, int period) {
+		switch (type) {
+		case Sma:
+		case Wma:
+		case Trima:
+			return 0;
+		case Ema:
+			return EMA_CONVERGENCE * (period + 1);
+		case Dema:
+			return 2 * EMA_CONVERGENCE * (period + 1);
+		case Tema:
+			return 3 * EMA_CONVERGENCE * (period + 1);
+		case T3:
+			return 6 * EMA_CONVERGENCE * (period + 1);
+		default:
+			return FULL_HISTORY;
+		}
+	}
+	
+	private static <T extends Enum<T>> FieldSeries<T> createSeries(Class<T> fields, JsonObject options, int startIndex, int begIndex, int nbElement, int[] timestamps, double[]... values) {
+		int skip = Math.min(Math.max(startIndex - begIndex, 0), nbElement);
 		
-		for(int i = begIndex; i < timestamps.length; i++) {
+		FieldSeries<T> series = new FieldSeries<T>(fields, options, nbElement - skip);
+		double[] row = new double[values.length];
+		
+		for(int i = skip; i < nbElement; i++) {
         	try {
-        		double[] row = new double[values.length];
-        		
         		for(int j = 0; j < row.length; j++)
-        			row[j] = values[j][i - begIndex];
+        			row[j] = values[j][i];
         		
-        		series.addRowArray(timestamps[i], row);
+        		series.addRowArray(timestamps[begIndex + i], row);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -275,7 +381,7 @@ public class TaLib {
 		return series;
 	}
 	
-	private static String capFirst(String s) {
+	static String capFirst(String s) {
 		String lower = s.toLowerCase();
 		return lower.substring(0, 1).toUpperCase() + lower.substring(1);
 	}
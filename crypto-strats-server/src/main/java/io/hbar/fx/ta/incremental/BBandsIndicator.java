@@ -0,0 +1,56 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.BBands;
+import io.hbar.fx.data.series.types.OHLCV;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Simple moving average bands, the deviation uses the precalculated average the same way
+ * Core.bbands does for MAType.Sma.
+ */
+public class BBandsIndicator extends IncrementalIndicator<BBands> {
+	private OHLCV field;
+	private int period;
+	private double deviationUp;
+	private double deviationDown;
+
+	private MovingSum sum;
+	private MovingSum sumOfSquares;
+
+	public BBandsIndicator(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
+		super(BBands.class, ohlcv, options);
+		this.field = field;
+		this.period = options.getInteger("period");
+		this.deviationUp = options.getNumber("deviationUp").doubleValue();
+		this.deviationDown = options.getNumber("deviationDown").doubleValue();
+		this.sum = new MovingSum(period);
+		this.sumOfSquares = new MovingSum(period);
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		double value = input(index, field);
+		return output(sum.push(value), sumOfSquares.push(value * value));
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		double value = input(index, field);
+		return output(sum.peek(value), sumOfSquares.peek(value * value));
+	}
+
+	private boolean output(double total, double totalOfSquares) {
+		if (Double.isNaN(total)) return false;
+
+		double middle = total / period;
+		double variance = totalOfSquares / period - middle * middle;
+		double deviation = !(variance < 0.00000001) ? Math.sqrt(variance) : 0.0;
+
+		row[0] = middle + deviation * deviationUp;
+		row[1] = middle;
+		row[2] = middle - deviation * deviationDown;
+		return true;
+	}
+}
@@ -0,0 +1,35 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.EMA;
+import io.hbar.fx.data.series.types.OHLCV;
+
+import org.vertx.java.core.json.JsonObject;
+
+public class EMAIndicator extends IncrementalIndicator<EMA> {
+	private OHLCV field;
+	private MovingEMA ema;
+
+	public EMAIndicator(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
+		super(EMA.class, ohlcv, options);
+		this.field = field;
+		this.ema = new MovingEMA(options.getInteger("period"));
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		return output(ema.push(input(index, field)));
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		return output(ema.peek(input(index, field)));
+	}
+
+	private boolean output(double value) {
+		if (Double.isNaN(value)) return false;
+
+		row[0] = value;
+		return true;
+	}
+}
@@ -0,0 +1,60 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.OHLCV;
+
+import org.vertx.java.core.json.JsonObject;
+
+public abstract class IncrementalIndicator<T extends Enum<T>> {
+	protected OHLCVSeries ohlcv;
+	protected FieldSeries<T> series;
+	protected double[] row;
+
+	/* number of closed candles folded into the rolling state */
+	private int committed = 0;
+
+	public IncrementalIndicator(Class<T> type, OHLCVSeries ohlcv, JsonObject options) {
+		this.ohlcv = ohlcv;
+		this.series = new FieldSeries<T>(type, options);
+		this.row = new double[series.getFields().length];
+	}
+
+	/*
+	 * Folds every candle that closed since the last update into the rolling state, then
+	 * recomputes the row of the open candle without touching that state.
+	 */
+	public void update() {
+		int last = ohlcv.size() - 1;
+		if (last < 0) return;
+
+		while (committed < last) {
+			if (commit(committed)) writeRow(committed);
+			committed++;
+		}
+
+		if (peek(last)) writeRow(last);
+	}
+
+	public FieldSeries<T> getSeries() {
+		return series;
+	}
+
+	/* consumes a closed candle, returns true if row holds an output value for it */
+	protected abstract boolean commit(int index);
+
+	/* computes the output for the open candle without consuming it */
+	protected abstract boolean peek(int index);
+
+	protected double input(int index, OHLCV field) {
+		return ohlcv.getValueAt(index, field);
+	}
+
+	private void writeRow(int index) {
+		try {
+			series.addRowArray(ohlcv.getTimestampAt(index), row);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.LinearReg;
+import io.hbar.fx.data.series.types.OHLCV;
+
+import org.vertx.java.core.json.JsonObject;
+
+public class LinearRegIndicator extends IncrementalIndicator<LinearReg> {
+	private OHLCV field;
+	private int period;
+	private double sumX;
+	private double divisor;
+
+	private double[] window;
+	private int count = 0;
+
+	public LinearRegIndicator(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
+		super(LinearReg.class, ohlcv, options);
+		this.field = field;
+		this.period = options.getInteger("period");
+		this.window = new double[period];
+
+		double sumXSqr = period * (period - 1) * (2 * period - 1) / 6;
+		this.sumX = period * (period - 1) * 0.5;
+		this.divisor = sumX * sumX - period * sumXSqr;
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		double value = input(index, field);
+		boolean ready = output(value);
+
+		window[count % period] = value;
+		count++;
+
+		return ready;
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		return output(input(index, field));
+	}
+
+	/* same summation order as Core.linearReg, oldest value first */
+	private boolean output(double value) {
+		if (count < period - 1) return false;
+
+		double sumXY = 0;
+		double sumY = 0;
+
+		for (int i = period - 1; i > 0; i--) {
+			double y = window[(count - i) % period];
+			sumY += y;
+			sumXY += (double) i * y;
+		}
+		sumY += value;
+
+		double m = (period * sumXY - sumX * sumY) / divisor;
+		double b = (sumY - m * sumX) / (double) period;
+
+		row[0] = b + m * (double) (period - 1);
+		return true;
+	}
+}
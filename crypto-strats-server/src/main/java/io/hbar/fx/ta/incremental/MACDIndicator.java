@@ -0,0 +1,75 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.MACD;
+import io.hbar.fx.data.series.types.OHLCV;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Core.macd seeds the fast EMA on the same bar as the slow one, so the fast average only
+ * starts consuming input (slow - fast) bars in.
+ */
+public class MACDIndicator extends IncrementalIndicator<MACD> {
+	private OHLCV field;
+	private int fastOffset;
+
+	private MovingEMA fast;
+	private MovingEMA slow;
+	private MovingEMA signal;
+
+	private int count = 0;
+
+	public MACDIndicator(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
+		super(MACD.class, ohlcv, options);
+		this.field = field;
+
+		int slowPeriod = options.getInteger("slowPeriod");
+		int fastPeriod = options.getInteger("fastPeriod");
+
+		if (slowPeriod < fastPeriod) {
+			int tmp = slowPeriod;
+			slowPeriod = fastPeriod;
+			fastPeriod = tmp;
+		}
+
+		this.fastOffset = slowPeriod - fastPeriod;
+		this.fast = new MovingEMA(fastPeriod);
+		this.slow = new MovingEMA(slowPeriod);
+		this.signal = new MovingEMA(options.getInteger("signalPeriod"));
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		double value = input(index, field);
+
+		double slowValue = slow.push(value);
+		double fastValue = count >= fastOffset ? fast.push(value) : Double.NaN;
+		count++;
+
+		if (Double.isNaN(slowValue)) return false;
+
+		double macd = fastValue - slowValue;
+		return output(macd, signal.push(macd));
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		double value = input(index, field);
+
+		double slowValue = slow.peek(value);
+		if (Double.isNaN(slowValue)) return false;
+
+		double macd = fast.peek(value) - slowValue;
+		return output(macd, signal.peek(macd));
+	}
+
+	private boolean output(double macd, double signalValue) {
+		if (Double.isNaN(signalValue)) return false;
+
+		row[0] = macd;
+		row[1] = signalValue;
+		row[2] = macd - signalValue;
+		return true;
+	}
+}
@@ -0,0 +1,45 @@
+package io.hbar.fx.ta.incremental;
+
+/*
+ * Exponential moving average seeded with the simple average of the first period values,
+ * as TA-Lib's TA_INT_EMA does in its default compatibility mode.
+ */
+class MovingEMA {
+	private int period;
+	private double k;
+	private double total = 0;
+	private double value = Double.NaN;
+	private int count = 0;
+
+	MovingEMA(int period) {
+		this.period = period;
+		this.k = (double) 2.0 / ((double) (period + 1));
+	}
+
+	double push(double in) {
+		if (count < period) {
+			total += in;
+			if (count == period - 1) value = total / period;
+		} else {
+			value = ((in - value) * k) + value;
+		}
+
+		count++;
+
+		return value;
+	}
+
+	double peek(double in) {
+		if (count < period - 1) {
+			return Double.NaN;
+		} else if (count == period - 1) {
+			return (total + in) / period;
+		} else {
+			return ((in - value) * k) + value;
+		}
+	}
+
+	double getValue() {
+		return value;
+	}
+}
@@ -0,0 +1,42 @@
+package io.hbar.fx.ta.incremental;
+
+/*
+ * Running window total with the same add/subtract order as TA-Lib's TA_INT_SMA so that
+ * results match the batch computation bit for bit.
+ */
+class MovingSum {
+	private int period;
+	private double[] window;
+	private double total = 0;
+	private int count = 0;
+
+	MovingSum(int period) {
+		this.period = period;
+		this.window = new double[period];
+	}
+
+	double push(double value) {
+		double sum = Double.NaN;
+
+		if (count < period - 1) {
+			total += value;
+		} else {
+			total += value;
+			sum = total;
+			total -= window[(count + 1) % period];
+		}
+
+		window[count % period] = value;
+		count++;
+
+		return sum;
+	}
+
+	double peek(double value) {
+		return count < period - 1 ? Double.NaN : total + value;
+	}
+
+	int getPeriod() {
+		return period;
+	}
+}
@@ -0,0 +1,82 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.OHLCV;
+import io.hbar.fx.data.series.types.RSI;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Wilder smoothed RSI following Core.rsi in default compatibility mode.
+ */
+public class RSIIndicator extends IncrementalIndicator<RSI> {
+	private OHLCV field;
+	private int period;
+
+	private int count = 0;
+	private double prevValue;
+	private double prevGain = 0;
+	private double prevLoss = 0;
+
+	public RSIIndicator(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
+		super(RSI.class, ohlcv, options);
+		this.field = field;
+		this.period = options.getInteger("period");
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		return step(input(index, field), true);
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		return step(input(index, field), false);
+	}
+
+	private boolean step(double value, boolean commit) {
+		if (count == 0) {
+			if (commit) {
+				prevValue = value;
+				count++;
+			}
+			return false;
+		}
+
+		double gain = prevGain;
+		double loss = prevLoss;
+		double delta = value - prevValue;
+		boolean ready = true;
+
+		if (count < period) {
+			if (delta < 0) loss -= delta;
+			else gain += delta;
+			ready = false;
+		} else if (count == period) {
+			if (delta < 0) loss -= delta;
+			else gain += delta;
+			loss /= period;
+			gain /= period;
+		} else {
+			loss *= (period - 1);
+			gain *= (period - 1);
+			if (delta < 0) loss -= delta;
+			else gain += delta;
+			loss /= period;
+			gain /= period;
+		}
+
+		if (commit) {
+			prevValue = value;
+			prevGain = gain;
+			prevLoss = loss;
+			count++;
+		}
+
+		if (!ready) return false;
+
+		double total = gain + loss;
+		row[0] = !((-0.00000001 < total) && (total < 0.00000001)) ? 100.0 * (gain / total) : 0.0;
+		return true;
+	}
+}
@@ -0,0 +1,37 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.ta.IndicatorFactory;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Fallback for indicators without a rolling implementation (the Hilbert transforms, non
+ * SMA bands, the generic TA-Lib functions). The first update computes the whole history,
+ * later ones only the window from the last known output onwards, merged into the series.
+ */
+public class RecomputedIndicator<T extends Enum<T>> extends IncrementalIndicator<T> {
+	private IndicatorFactory<T> factory;
+
+	public RecomputedIndicator(IndicatorFactory<T> factory, OHLCVSeries ohlcv, JsonObject options) {
+		super(factory.getType(), ohlcv, options);
+		this.factory = factory;
+	}
+
+	@Override
+	public void update() {
+		int startIndex = series.isEmpty() ? 0 : ohlcv.ceilingIndex(series.getLastTimestamp());
+		factory.merge(series, ohlcv, startIndex);
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		return false;
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		return false;
+	}
+}
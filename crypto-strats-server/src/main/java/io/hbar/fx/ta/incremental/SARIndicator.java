@@ -0,0 +1,138 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.OHLCV;
+import io.hbar.fx.data.series.types.SAR;
+
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Parabolic SAR state machine lifted from Core.sar, one bar at a time.
+ */
+public class SARIndicator extends IncrementalIndicator<SAR> {
+	private double acceleration;
+	private double maximum;
+
+	private int count = 0;
+	private boolean isLong;
+	private double sar;
+	private double ep;
+	private double af;
+	private double lastHigh;
+	private double lastLow;
+
+	public SARIndicator(OHLCVSeries ohlcv, JsonObject options) {
+		super(SAR.class, ohlcv, options);
+		this.acceleration = options.getNumber("acceleration").doubleValue();
+		this.maximum = options.getNumber("maximum").doubleValue();
+
+		if (acceleration > maximum) acceleration = maximum;
+		this.af = acceleration;
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		return step(input(index, OHLCV.High), input(index, OHLCV.Low), true);
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		return step(input(index, OHLCV.High), input(index, OHLCV.Low), false);
+	}
+
+	private boolean step(double newHigh, double newLow, boolean commit) {
+		if (count == 0) {
+			if (commit) {
+				lastHigh = newHigh;
+				lastLow = newLow;
+				count++;
+			}
+			return false;
+		}
+
+		boolean isLong = this.isLong;
+		double sar = this.sar;
+		double ep = this.ep;
+		double af = this.af;
+		double prevHigh = lastHigh;
+		double prevLow = lastLow;
+
+		if (count == 1) {
+			/* initial direction comes from the -DM of the first two bars */
+			double diffP = newHigh - lastHigh;
+			double diffM = lastLow - newLow;
+			isLong = !((diffM > 0) && (diffP < diffM));
+
+			if (isLong) {
+				ep = newHigh;
+				sar = lastLow;
+			} else {
+				ep = newLow;
+				sar = lastHigh;
+			}
+
+			prevHigh = newHigh;
+			prevLow = newLow;
+		}
+
+		if (isLong) {
+			if (newLow <= sar) {
+				isLong = false;
+				sar = ep;
+				if (sar < prevHigh) sar = prevHigh;
+				if (sar < newHigh) sar = newHigh;
+				row[0] = sar;
+				af = acceleration;
+				ep = newLow;
+				sar = sar + af * (ep - sar);
+				if (sar < prevHigh) sar = prevHigh;
+				if (sar < newHigh) sar = newHigh;
+			} else {
+				row[0] = sar;
+				if (newHigh > ep) {
+					ep = newHigh;
+					af += acceleration;
+					if (af > maximum) af = maximum;
+				}
+				sar = sar + af * (ep - sar);
+				if (sar > prevLow) sar = prevLow;
+				if (sar > newLow) sar = newLow;
+			}
+		} else {
+			if (newHigh >= sar) {
+				isLong = true;
+				sar = ep;
+				if (sar > prevLow) sar = prevLow;
+				if (sar > newLow) sar = newLow;
+				row[0] = sar;
+				af = acceleration;
+				ep = newHigh;
+				sar = sar + af * (ep - sar);
+				if (sar > prevLow) sar = prevLow;
+				if (sar > newLow) sar = newLow;
+			} else {
+				row[0] = sar;
+				if (newLow < ep) {
+					ep = newLow;
+					af += acceleration;
+					if (af > maximum) af = maximum;
+				}
+				sar = sar + af * (ep - sar);
+				if (sar < prevHigh) sar = prevHigh;
+				if (sar < newHigh) sar = newHigh;
+			}
+		}
+
+		if (commit) {
+			this.isLong = isLong;
+			this.sar = sar;
+			this.ep = ep;
+			this.af = af;
+			this.lastHigh = newHigh;
+			this.lastLow = newLow;
+			count++;
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,35 @@
+package io.hbar.fx.ta.incremental;
+
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.OHLCV;
+import io.hbar.fx.data.series.types.SMA;
+
+import org.vertx.java.core.json.JsonObject;
+
+public class SMAIndicator extends IncrementalIndicator<SMA> {
+	private OHLCV field;
+	private MovingSum sum;
+
+	public SMAIndicator(OHLCVSeries ohlcv, JsonObject options, OHLCV field) {
+		super(SMA.class, ohlcv, options);
+		this.field = field;
+		this.sum = new MovingSum(options.getInteger("period"));
+	}
+
+	@Override
+	protected boolean commit(int index) {
+		return output(sum.push(input(index, field)));
+	}
+
+	@Override
+	protected boolean peek(int index) {
+		return output(sum.peek(input(index, field)));
+	}
+
+	private boolean output(double total) {
+		if (Double.isNaN(total)) return false;
+
+		row[0] = total / sum.getPeriod();
+		return true;
+	}
+}
@@ -168,6 +168,42 @@ public final class StrategyStatsSeriesSchema {
        * <code>required double volume = 3;</code>
        */
       double getVolume();
+
+      /**
+       * <code>required double position = 4;</code>
+       */
+      boolean hasPosition();
+      /**
+       * <code>required double position = 4;</code>
+       */
+      double getPosition();
+
+      /**
+       * <code>required double averageprice = 5;</code>
+       */
+      boolean hasAverageprice();
+      /**
+       * <code>required double averageprice = 5;</code>
+       */
+      double getAverageprice();
+
+      /**
+       * <code>required double realizedpnl = 6;</code>
+       */
+      boolean hasRealizedpnl();
+      /**
+       * <code>required double realizedpnl = 6;</code>
+       */
+      double getRealizedpnl();
+
+      /**
+       * <code>required double fees = 7;</code>
+       */
+      boolean hasFees();
+      /**
+       * <code>required double fees = 7;</code>
+       */
+      double getFees();
     }
     /**
      * Protobuf type {@code StrategyStatsSeries.StrategyStats}
@@ -184,6 +220,10 @@ public final class StrategyStatsSeriesSchema {
         timestamp_ = 0;
         price_ = 0D;
         volume_ = 0D;
+        position_ = 0D;
+        averageprice_ = 0D;
+        realizedpnl_ = 0D;
+        fees_ = 0D;
       }
 
       @java.lang.Override
@@ -228,6 +268,26 @@ public final class StrategyStatsSeriesSchema {
                 volume_ = input.readDouble();
                 break;
               }
+              case 33: {
+                bitField0_ |= 0x00000008;
+                position_ = input.readDouble();
+                break;
+              }
+              case 41: {
+                bitField0_ |= 0x00000010;
+                averageprice_ = input.readDouble();
+                break;
+              }
+              case 49: {
+                bitField0_ |= 0x00000020;
+                realizedpnl_ = input.readDouble();
+                break;
+              }
+              case 57: {
+                bitField0_ |= 0x00000040;
+                fees_ = input.readDouble();
+                break;
+              }
             }
           }
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -323,6 +383,66 @@ public final class StrategyStatsSeriesSchema {
         return volume_;
       }
 
+      public static final int POSITION_FIELD_NUMBER = 4;
+      private double position_;
+      /**
+       * <code>required double position = 4;</code>
+       */
+      public boolean hasPosition() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>required double position = 4;</code>
+       */
+      public double getPosition() {
+        return position_;
+      }
+
+      public static final int AVERAGEPRICE_FIELD_NUMBER = 5;
+      private double averageprice_;
+      /**
+       * <code>required double averageprice = 5;</code>
+       */
+      public boolean hasAverageprice() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>required double averageprice = 5;</code>
+       */
+      public double getAverageprice() {
+        return averageprice_;
+      }
+
+      public static final int REALIZEDPNL_FIELD_NUMBER = 6;
+      private double realizedpnl_;
+      /**
+       * <code>required double realizedpnl = 6;</code>
+       */
+      public boolean hasRealizedpnl() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>required double realizedpnl = 6;</code>
+       */
+      public double getRealizedpnl() {
+        return realizedpnl_;
+      }
+
+      public static final int FEES_FIELD_NUMBER = 7;
+      private double fees_;
+      /**
+       * <code>required double fees = 7;</code>
+       */
+      public boolean hasFees() {
+        return ((bitField0_ & 0x00000040) == 0x00000040);
+      }
+      /**
+       * <code>required double fees = 7;</code>
+       */
+      public double getFees() {
+        return fees_;
+      }
+
       private byte memoizedIsInitialized = -1;
       public final boolean isInitialized() {
         byte isInitialized = memoizedIsInitialized;
@@ -341,6 +461,22 @@ public final class StrategyStatsSeriesSchema {
           memoizedIsInitialized = 0;
           return false;
         }
+        if (!hasPosition()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+        if (!hasAverageprice()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+        if (!hasRealizedpnl()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+        if (!hasFees()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
         memoizedIsInitialized = 1;
         return true;
       }
@@ -356,6 +492,18 @@ public final class StrategyStatsSeriesSchema {
         if (((bitField0_ & 0x00000004) == 0x00000004)) {
           output.writeDouble(3, volume_);
         }
+        if (((bitField0_ & 0x00000008) == 0x00000008)) {
+          output.writeDouble(4, position_);
+        }
+        if (((bitField0_ & 0x00000010) == 0x00000010)) {
+          output.writeDouble(5, averageprice_);
+        }
+        if (((bitField0_ & 0x00000020) == 0x00000020)) {
+          output.writeDouble(6, realizedpnl_);
+        }
+        if (((bitField0_ & 0x00000040) == 0x00000040)) {
+          output.writeDouble(7, fees_);
+        }
         unknownFields.writeTo(output);
       }
 
@@ -377,6 +525,22 @@ public final class StrategyStatsSeriesSchema {
           size += com.google.protobuf.CodedOutputStream
             .computeDoubleSize(3, volume_);
         }
+        if (((bitField0_ & 0x00000008) == 0x00000008)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeDoubleSize(4, position_);
+        }
+        if (((bitField0_ & 0x00000010) == 0x00000010)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeDoubleSize(5, averageprice_);
+        }
+        if (((bitField0_ & 0x00000020) == 0x00000020)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeDoubleSize(6, realizedpnl_);
+        }
+        if (((bitField0_ & 0x00000040) == 0x00000040)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeDoubleSize(7, fees_);
+        }
         size += unknownFields.getSerializedSize();
         memoizedSerializedSize = size;
         return size;
@@ -495,6 +659,14 @@ public final class StrategyStatsSeriesSchema {
           bitField0_ = (bitField0_ & ~0x00000002);
           volume_ = 0D;
           bitField0_ = (bitField0_ & ~0x00000004);
+          position_ = 0D;
+          bitField0_ = (bitField0_ & ~0x00000008);
+          averageprice_ = 0D;
+          bitField0_ = (bitField0_ & ~0x00000010);
+          realizedpnl_ = 0D;
+          bitField0_ = (bitField0_ & ~0x00000020);
+          fees_ = 0D;
+          bitField0_ = (bitField0_ & ~0x00000040);
           return this;
         }
 
@@ -531,6 +703,22 @@ public final class StrategyStatsSeriesSchema {
             to_bitField0_ |= 0x00000004;
           }
           result.volume_ = volume_;
+          if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+            to_bitField0_ |= 0x00000008;
+          }
+          result.position_ = position_;
+          if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+            to_bitField0_ |= 0x00000010;
+          }
+          result.averageprice_ = averageprice_;
+          if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+            to_bitField0_ |= 0x00000020;
+          }
+          result.realizedpnl_ = realizedpnl_;
+          if (((from_bitField0_ & 0x00000040) == 0x00000040)) {
+            to_bitField0_ |= 0x00000040;
+          }
+          result.fees_ = fees_;
           result.bitField0_ = to_bitField0_;
           onBuilt();
           return result;
@@ -556,6 +744,18 @@ public final class StrategyStatsSeriesSchema {
           if (other.hasVolume()) {
             setVolume(other.getVolume());
           }
+          if (other.hasPosition()) {
+            setPosition(other.getPosition());
+          }
+          if (other.hasAverageprice()) {
+            setAverageprice(other.getAverageprice());
+          }
+          if (other.hasRealizedpnl()) {
+            setRealizedpnl(other.getRealizedpnl());
+          }
+          if (other.hasFees()) {
+            setFees(other.getFees());
+          }
           this.mergeUnknownFields(other.unknownFields);
           onChanged();
           return this;
@@ -574,6 +774,22 @@ public final class StrategyStatsSeriesSchema {
             
             return false;
           }
+          if (!hasPosition()) {
+            
+            return false;
+          }
+          if (!hasAverageprice()) {
+            
+            return false;
+          }
+          if (!hasRealizedpnl()) {
+            
+            return false;
+          }
+          if (!hasFees()) {
+            
+            return false;
+          }
           return true;
         }
 
@@ -692,6 +908,134 @@ public final class StrategyStatsSeriesSchema {
           return this;
         }
 
+        private double position_ ;
+        /**
+         * <code>required double position = 4;</code>
+         */
+        public boolean hasPosition() {
+          return ((bitField0_ & 0x00000008) == 0x00000008);
+        }
+        /**
+         * <code>required double position = 4;</code>
+         */
+        public double getPosition() {
+          return position_;
+        }
+        /**
+         * <code>required double position = 4;</code>
+         */
+        public Builder setPosition(double value) {
+          bitField0_ |= 0x00000008;
+          position_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>required double position = 4;</code>
+         */
+        public Builder clearPosition() {
+          bitField0_ = (bitField0_ & ~0x00000008);
+          position_ = 0D;
+          onChanged();
+          return this;
+        }
+
+        private double averageprice_ ;
+        /**
+         * <code>required double averageprice = 5;</code>
+         */
+        public boolean hasAverageprice() {
+          return ((bitField0_ & 0x00000010) == 0x00000010);
+        }
+        /**
+         * <code>required double averageprice = 5;</code>
+         */
+        public double getAverageprice() {
+          return averageprice_;
+        }
+        /**
+         * <code>required double averageprice = 5;</code>
+         */
+        public Builder setAverageprice(double value) {
+          bitField0_ |= 0x00000010;
+          averageprice_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>required double averageprice = 5;</code>
+         */
+        public Builder clearAverageprice() {
+          bitField0_ = (bitField0_ & ~0x00000010);
+          averageprice_ = 0D;
+          onChanged();
+          return this;
+        }
+
+        private double realizedpnl_ ;
+        /**
+         * <code>required double realizedpnl = 6;</code>
+         */
+        public boolean hasRealizedpnl() {
+          return ((bitField0_ & 0x00000020) == 0x00000020);
+        }
+        /**
+         * <code>required double realizedpnl = 6;</code>
+         */
+        public double getRealizedpnl() {
+          return realizedpnl_;
+        }
+        /**
+         * <code>required double realizedpnl = 6;</code>
+         */
+        public Builder setRealizedpnl(double value) {
+          bitField0_ |= 0x00000020;
+          realizedpnl_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>required double realizedpnl = 6;</code>
+         */
+        public Builder clearRealizedpnl() {
+          bitField0_ = (bitField0_ & ~0x00000020);
+          realizedpnl_ = 0D;
+          onChanged();
+          return this;
+        }
+
+        private double fees_ ;
+        /**
+         * <code>required double fees = 7;</code>
+         */
+        public boolean hasFees() {
+          return ((bitField0_ & 0x00000040) == 0x00000040);
+        }
+        /**
+         * <code>required double fees = 7;</code>
+         */
+        public double getFees() {
+          return fees_;
+        }
+        /**
+         * <code>required double fees = 7;</code>
+         */
+        public Builder setFees(double value) {
+          bitField0_ |= 0x00000040;
+          fees_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>required double fees = 7;</code>
+         */
+        public Builder clearFees() {
+          bitField0_ = (bitField0_ & ~0x00000040);
+          fees_ = 0D;
+          onChanged();
+          return this;
+        }
+
         // @@protoc_insertion_point(builder_scope:StrategyStatsSeries.StrategyStats)
       }
 
@@ -1288,12 +1632,14 @@ public final class StrategyStatsSeriesSchema {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\031StrategyStatsSeries.proto\"\214\001\n\023Strategy" +
+      "\n\031StrategyStatsSeries.proto\"\330\001\n\023Strategy" +
       "StatsSeries\0222\n\006series\030\001 \003(\0132\".StrategySt" +
-      "atsSeries.StrategyStats\032A\n\rStrategyStats" +
-      "\022\021\n\ttimestamp\030\001 \002(\005\022\r\n\005price\030\002 \002(\001\022\016\n\006vo" +
-      "lume\030\003 \002(\001B4\n\027io.hbar.protobuf.schemaB\031S" +
-      "trategyStatsSeriesSchema"
+      "atsSeries.StrategyStats\032\214\001\n\rStrategyStat" +
+      "s\022\021\n\ttimestamp\030\001 \002(\005\022\r\n\005price\030\002 \002(\001\022\016\n\006v" +
+      "olume\030\003 \002(\001\022\020\n\010position\030\004 \002(\001\022\024\n\014average" +
+      "price\030\005 \002(\001\022\023\n\013realizedpnl\030\006 \002(\001\022\014\n\004fees" +
+      "\030\007 \002(\001B4\n\027io.hbar.protobuf.schemaB\031Strat" +
+      "egyStatsSeriesSchema"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -1318,7 +1664,7 @@ public final class StrategyStatsSeriesSchema {
     internal_static_StrategyStatsSeries_StrategyStats_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_StrategyStatsSeries_StrategyStats_descriptor,
-        new java.lang.String[] { "Timestamp", "Price", "Volume", });
+        new java.lang.String[] { "Timestamp", "Price", "Volume", "Position", "Averageprice", "Realizedpnl", "Fees", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
@@ -2,76 +2,43 @@ package io.hbar.protobuf.serializer;
 
 import io.hbar.fx.data.series.FieldSeries;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ProtoBufSerializer {
+	private static Map<Class<?>, SeriesEncoder> encoders = new ConcurrentHashMap<Class<?>, SeriesEncoder>();
 
+	/* rows in [startTime, endTime), encoded as the <Type>Series message of the generated schema */
 	public static <T extends Enum<T>> byte[] serialize(FieldSeries<T> series, int startTime, int endTime) {
-		Object seriesBuilder = getBuilder(getSeriesClass(series.getTypeString()));
+		synchronized (series) {
+			int startIndex = series.ceilingIndex(startTime);
 
-		for (int timestamp : series.getTimestampSet().subSet(startTime, endTime)) {
-			Object rowBuilder = getBuilder(getRowClass(series.getTypeString()));
-
-			try {
-				rowBuilder.getClass().getMethod("setTimestamp", int.class).invoke(rowBuilder, timestamp);
-
-				for (T field : series.getFields()) {
-					Method setField = rowBuilder.getClass().getMethod("set" + getSetterMethodString(field), double.class);
-					setField.invoke(rowBuilder, series.getValue(timestamp, field));
-				}
-
-				Object built = rowBuilder.getClass().getMethod("build").invoke(rowBuilder);
-				seriesBuilder.getClass().getMethod("addSeries", built.getClass()).invoke(seriesBuilder, built);
-
-			} catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-				e.printStackTrace();
-			}
-		}
-
-		try {
-			Object built = seriesBuilder.getClass().getMethod("build").invoke(seriesBuilder);
-			return (byte[]) built.getClass().getMethod("toByteArray").invoke(built);
-		} catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
+			return serializeRows(series, startIndex, Math.max(series.ceilingIndex(endTime), startIndex));
 		}
-
-		return null;
 	}
 
-	private static Class<?> getSeriesClass(String typeString) {
-		try {
-			return Class.forName("io.hbar.protobuf.schema." + typeString + "SeriesSchema$" + typeString + "Series");
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
-		}
+	/* rows [startIndex, endIndex), under the lock live updates take on the series */
+	public static <T extends Enum<T>> byte[] serializeRows(FieldSeries<T> series, int startIndex, int endIndex) {
+		T[] fields = series.getFields();
 
-		return null;
-	}
+		synchronized (series) {
+			double[][] columns = new double[fields.length][];
+			for (int i = 0; i < fields.length; i++) {
+				columns[i] = series.getColumn(fields[i]);
+			}
 
-	private static Class<?> getRowClass(String typeString) {
-		try {
-			return Class.forName("io.hbar.protobuf.schema." + typeString + "SeriesSchema$" + typeString + "Series$" + typeString);
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace();
+			return getEncoder(series.getType()).encode(series.getTimestampColumn(), columns, startIndex, endIndex);
 		}
-
-		return null;
 	}
 
-	private static Object getBuilder(Class<?> protoClass) {
-		try {
-			return protoClass.getMethod("newBuilder").invoke(protoClass);
-		} catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
+	private static SeriesEncoder getEncoder(Class<? extends Enum<?>> type) {
+		SeriesEncoder encoder = encoders.get(type);
+
+		if (encoder == null) {
+			encoder = new SeriesEncoder(type);
+			encoders.put(type, encoder);
 		}
 
-		return null;
-	}
-	
-	private static <T> String getSetterMethodString(T field) {
-		String fieldString = field.toString().toLowerCase();
-		return fieldString.substring(0, 1).toUpperCase() + fieldString.substring(1);
+		return encoder;
 	}
-
 }
@@ -0,0 +1,63 @@
+package io.hbar.protobuf.serializer;
+
+import io.hbar.fx.data.series.FieldSeries;
+
+/*
+ * The rows of a series in [startTime, endTime) cut into encoded <Type>Series messages of at most
+ * chunkRows rows each. Rows keep their order inside a chunk, the chunks themselves come oldest or
+ * newest first. The row range is fixed when the chunks are created.
+ */
+public class SeriesChunks {
+	private FieldSeries<?> series;
+	private int startIndex;
+	private int endIndex;
+	private int chunkRows;
+	private boolean newestFirst;
+
+	private int count;
+	private int index = 0;
+
+	public SeriesChunks(FieldSeries<?> series, int startTime, int endTime, int chunkRows, boolean newestFirst) {
+		this.series = series;
+
+		synchronized (series) {
+			this.startIndex = series.ceilingIndex(startTime);
+			this.endIndex = Math.max(series.ceilingIndex(endTime), startIndex);
+		}
+
+		this.chunkRows = Math.max(chunkRows, 1);
+		this.newestFirst = newestFirst;
+
+		count = Math.max((endIndex - startIndex + this.chunkRows - 1) / this.chunkRows, 1);
+	}
+
+	public boolean hasNext() {
+		return index < count;
+	}
+
+	/* an empty range still gives one empty chunk */
+	public byte[] next() {
+		int from;
+		int to;
+
+		if (newestFirst) {
+			to = endIndex - index * chunkRows;
+			from = Math.max(to - chunkRows, startIndex);
+		} else {
+			from = startIndex + index * chunkRows;
+			to = Math.min(from + chunkRows, endIndex);
+		}
+
+		index++;
+
+		return ProtoBufSerializer.serializeRows(series, from, to);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,137 @@
+package io.hbar.protobuf.serializer;
+
+import java.lang.reflect.InvocationTargetException;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FileDescriptor;
+
+/*
+ * Protobuf wire encoder for one <Type>Series message as laid out by generateSchema.py: field 1
+ * repeated rows, each row an int32 timestamp (field 1) then one double per enum field (fields
+ * 2, 3...). The tags are built once per type, rows are written straight from the columns into
+ * an exactly sized buffer. Types with a generated schema are checked against its descriptor
+ * when the encoder is built.
+ */
+public class SeriesEncoder {
+	private final static int SERIES_TAG = (1 << 3) | 2;
+	private final static int TIMESTAMP_TAG = (1 << 3);
+
+	private byte[][] fieldTags;
+	private int fieldsSize;
+
+	public SeriesEncoder(Class<? extends Enum<?>> type) {
+		Enum<?>[] fields = type.getEnumConstants();
+		checkSchema(type.getSimpleName(), fields);
+
+		fieldTags = new byte[fields.length][];
+
+		for (int i = 0; i < fields.length; i++) {
+			int tag = ((i + 2) << 3) | 1;
+
+			fieldTags[i] = new byte[varintSize(tag)];
+			writeVarint(fieldTags[i], 0, tag);
+
+			fieldsSize += fieldTags[i].length + 8;
+		}
+	}
+
+	/* rows [from, to) */
+	public byte[] encode(int[] timestamps, double[][] columns, int from, int to) {
+		int size = 0;
+		for (int index = from; index < to; index++) {
+			int rowSize = rowSize(timestamps[index]);
+			size += 1 + varintSize(rowSize) + rowSize;
+		}
+
+		byte[] buffer = new byte[size];
+		int position = 0;
+
+		for (int index = from; index < to; index++) {
+			int timestamp = timestamps[index];
+
+			buffer[position++] = SERIES_TAG;
+			position = writeVarint(buffer, position, rowSize(timestamp));
+
+			buffer[position++] = TIMESTAMP_TAG;
+			position = writeVarint(buffer, position, timestamp);
+
+			for (int i = 0; i < fieldTags.length; i++) {
+				byte[] tag = fieldTags[i];
+				for (int j = 0; j < tag.length; j++) {
+					buffer[position++] = tag[j];
+				}
+
+				long bits = Double.doubleToRawLongBits(columns[i][index]);
+				for (int j = 0; j < 8; j++) {
+					buffer[position++] = (byte) (bits >>> (j * 8));
+				}
+			}
+		}
+
+		return buffer;
+	}
+
+	/* the tags above assume field number = ordinal + 2, a schema generated from another enum would decode garbage */
+	private static void checkSchema(String typeString, Enum<?>[] fields) {
+		FileDescriptor schema;
+
+		try {
+			schema = (FileDescriptor) Class.forName("io.hbar.protobuf.schema." + typeString + "SeriesSchema").getMethod("getDescriptor").invoke(null);
+		} catch (ClassNotFoundException e) {
+			/* no generated schema for this type */
+			return;
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("cannot read the " + typeString + "SeriesSchema descriptor", e);
+		}
+
+		Descriptor series = schema.findMessageTypeByName(typeString + "Series");
+		Descriptor row = series != null ? series.findNestedTypeByName(typeString) : null;
+		if (row == null) {
+			throw new IllegalStateException(typeString + "SeriesSchema has no " + typeString + "Series." + typeString + " message");
+		}
+
+		checkField(series, "series", 1, FieldDescriptor.Type.MESSAGE);
+		checkField(row, "timestamp", 1, FieldDescriptor.Type.INT32);
+
+		for (Enum<?> field : fields) {
+			checkField(row, field.name().toLowerCase(), field.ordinal() + 2, FieldDescriptor.Type.DOUBLE);
+		}
+
+		if (row.getFields().size() != fields.length + 1) {
+			throw new IllegalStateException(row.getFullName() + " has " + row.getFields().size() + " fields, expected " + (fields.length + 1));
+		}
+	}
+
+	private static void checkField(Descriptor message, String name, int number, FieldDescriptor.Type type) {
+		FieldDescriptor field = message.findFieldByName(name);
+
+		if (field == null || field.getNumber() != number || field.getType() != type) {
+			throw new IllegalStateException(message.getFullName() + "." + name + " is not " + type + " field " + number + " in the generated schema");
+		}
+	}
+
+	private int rowSize(int timestamp) {
+		return 1 + varintSize(timestamp) + fieldsSize;
+	}
+
+	/* int32 values are sign extended to 64 bits on the wire */
+	private static int writeVarint(byte[] buffer, int position, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+
+		return position;
+	}
+
+	private static int varintSize(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			size++;
+			value >>>= 7;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,199 @@
+package io.hbar.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.OHLCVSeries;
+import io.hbar.fx.data.series.types.BBands;
+import io.hbar.fx.data.series.types.EMA;
+import io.hbar.fx.data.series.types.HilbertTrendline;
+import io.hbar.fx.data.series.types.LinearReg;
+import io.hbar.fx.data.series.types.MACD;
+import io.hbar.fx.data.series.types.OHLCV;
+import io.hbar.fx.data.series.types.RSI;
+import io.hbar.fx.data.series.types.SAR;
+import io.hbar.fx.data.series.types.SMA;
+import io.hbar.fx.data.store.TradeStore;
+import io.hbar.fx.ta.IndicatorRegistry;
+import io.hbar.fx.ta.TaLib;
+import io.hbar.fx.ta.incremental.BBandsIndicator;
+import io.hbar.fx.ta.incremental.EMAIndicator;
+import io.hbar.fx.ta.incremental.IncrementalIndicator;
+import io.hbar.fx.ta.incremental.LinearRegIndicator;
+import io.hbar.fx.ta.incremental.MACDIndicator;
+import io.hbar.fx.ta.incremental.RSIIndicator;
+import io.hbar.fx.ta.incremental.RecomputedIndicator;
+import io.hbar.fx.ta.incremental.SARIndicator;
+import io.hbar.fx.ta.incremental.SMAIndicator;
+
+import org.junit.Test;
+import org.vertx.java.core.json.JsonObject;
+
+/*
+ * Candles are fed trade by trade, after each trade the incremental series (closed candles
+ * committed, the open one peeked) has to be the TaLib series of the same candles.
+ */
+public class IncrementalIndicatorTest {
+	final static int PERIOD = 120;
+	final static int TRADES = 3000;
+
+	/* trades added before the indicator first updates, it catches up over several candles */
+	final static int WARM_UP = 200;
+
+	private TradeStore trades = new RandomTradeStore(42, 1400000000, TRADES);
+	private OHLCVSeries ohlcv = new OHLCVSeries(PERIOD);
+
+	@Test
+	public void testSMA() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("period", 10);
+
+		assertMatchesTaLib(new SMAIndicator(ohlcv, options, OHLCV.Close), 0, new TaLibFunction<SMA>() {
+			@Override
+			public FieldSeries<SMA> compute(OHLCVSeries ohlcv) {
+				return TaLib.sma(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	@Test
+	public void testEMA() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("period", 10);
+
+		assertMatchesTaLib(new EMAIndicator(ohlcv, options, OHLCV.Close), 0, new TaLibFunction<EMA>() {
+			@Override
+			public FieldSeries<EMA> compute(OHLCVSeries ohlcv) {
+				return TaLib.ema(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	@Test
+	public void testRSI() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("period", 14);
+
+		assertMatchesTaLib(new RSIIndicator(ohlcv, options, OHLCV.Close), 0, new TaLibFunction<RSI>() {
+			@Override
+			public FieldSeries<RSI> compute(OHLCVSeries ohlcv) {
+				return TaLib.rsi(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	@Test
+	public void testMACD() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("fastPeriod", 12).putNumber("slowPeriod", 26).putNumber("signalPeriod", 9);
+
+		assertMatchesTaLib(new MACDIndicator(ohlcv, options, OHLCV.Close), 0, new TaLibFunction<MACD>() {
+			@Override
+			public FieldSeries<MACD> compute(OHLCVSeries ohlcv) {
+				return TaLib.macd(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	@Test
+	public void testBBands() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("period", 20).putNumber("deviationUp", 2.5).putNumber("deviationDown", 1.5)
+				.putString("maType", "SMA");
+
+		assertMatchesTaLib(new BBandsIndicator(ohlcv, options, OHLCV.Close), 0, new TaLibFunction<BBands>() {
+			@Override
+			public FieldSeries<BBands> compute(OHLCVSeries ohlcv) {
+				return TaLib.bbands(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	@Test
+	public void testSAR() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("acceleration", 0.02).putNumber("maximum", 0.2);
+
+		assertMatchesTaLib(new SARIndicator(ohlcv, options), 0, new TaLibFunction<SAR>() {
+			@Override
+			public FieldSeries<SAR> compute(OHLCVSeries ohlcv) {
+				return TaLib.sar(ohlcv, options);
+			}
+		});
+	}
+
+	@Test
+	public void testLinearReg() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("period", 14);
+
+		assertMatchesTaLib(new LinearRegIndicator(ohlcv, options, OHLCV.Close), 0, new TaLibFunction<LinearReg>() {
+			@Override
+			public FieldSeries<LinearReg> compute(OHLCVSeries ohlcv) {
+				return TaLib.linearreg(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	/* only recomputes the window an EMA needs to converge, not from the first candle */
+	@Test
+	public void testRecomputedBBands() throws Exception {
+		final JsonObject options = new JsonObject().putNumber("period", 20).putNumber("deviationUp", 2).putNumber("deviationDown", 2)
+				.putString("maType", "EMA");
+
+		IncrementalIndicator<?> indicator = IndicatorRegistry.get("BBands").createIncremental(ohlcv, options);
+		assertTrue(indicator instanceof RecomputedIndicator);
+
+		assertMatchesTaLib(indicator, 1e-9, new TaLibFunction<BBands>() {
+			@Override
+			public FieldSeries<BBands> compute(OHLCVSeries ohlcv) {
+				return TaLib.bbands(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	@Test
+	public void testRecomputedHilbertTrendline() throws Exception {
+		final JsonObject options = new JsonObject();
+
+		IncrementalIndicator<?> indicator = IndicatorRegistry.get("HilbertTrendline").createIncremental(ohlcv, options);
+		assertTrue(indicator instanceof RecomputedIndicator);
+
+		assertMatchesTaLib(indicator, 0, new TaLibFunction<HilbertTrendline>() {
+			@Override
+			public FieldSeries<HilbertTrendline> compute(OHLCVSeries ohlcv) {
+				return TaLib.hilberttrendline(ohlcv, options, OHLCV.Close);
+			}
+		});
+	}
+
+	/* tolerance is relative to the TaLib value, 0 for the same doubles */
+	private void assertMatchesTaLib(IncrementalIndicator<?> indicator, double tolerance, TaLibFunction<?> talib) throws Exception {
+		int rows = 0;
+
+		for (int i = 0; i < TRADES; i++) {
+			ohlcv.addTrade(trades.getTimestamp(i), trades.getPrice(i), trades.getVolume(i));
+			if (i < WARM_UP) continue;
+
+			indicator.update();
+
+			FieldSeries<?> expected = talib.compute(ohlcv);
+			assertSeriesEqual("after trade " + i, expected, indicator.getSeries(), tolerance);
+
+			rows = expected.size();
+		}
+
+		assertTrue("no rows to compare", rows > ohlcv.size() / 2);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void assertSeriesEqual(String message, FieldSeries expected, FieldSeries actual, double tolerance) {
+		assertEquals(message + " rows", expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(message + " timestamp of row " + i, expected.getTimestampAt(i), actual.getTimestampAt(i));
+
+			for (Object field : expected.getFields()) {
+				double value = expected.getValueAt(i, (Enum) field);
+				assertEquals(message + " " + field + " of row " + i, value, actual.getValueAt(i, (Enum) field), tolerance * Math.abs(value));
+			}
+		}
+	}
+
+	private static abstract class TaLibFunction<T extends Enum<T>> {
+		public abstract FieldSeries<T> compute(OHLCVSeries ohlcv);
+	}
+}
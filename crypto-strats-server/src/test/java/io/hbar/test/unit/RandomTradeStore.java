@@ -0,0 +1,53 @@
+package io.hbar.test.unit;
+
+import io.hbar.fx.data.store.TradeStore;
+
+import java.util.Random;
+
+/* in memory random walk of trades, the same seed gives the same trades */
+public class RandomTradeStore extends TradeStore {
+	private int[] timestamps;
+	private double[] prices;
+	private double[] volumes;
+
+	public RandomTradeStore(long seed, int startTime, int count) {
+		Random random = new Random(seed);
+
+		timestamps = new int[count];
+		prices = new double[count];
+		volumes = new double[count];
+
+		int timestamp = startTime;
+		double price = 500;
+
+		for (int i = 0; i < count; i++) {
+			/* several trades can share a second */
+			timestamp += random.nextInt(60);
+			price = Math.max(1, price * (1 + 0.002 * random.nextGaussian()));
+
+			timestamps[i] = timestamp;
+			prices[i] = Math.round(price * 1e6) / 1e6;
+			volumes[i] = 0.01 + random.nextInt(100) / 100.0;
+		}
+	}
+
+	@Override
+	public int size() {
+		return timestamps.length;
+	}
+
+	@Override
+	public int getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	@Override
+	public double getPrice(int index) {
+		return prices[index];
+	}
+
+	@Override
+	public double getVolume(int index) {
+		return volumes[index];
+	}
+}
@@ -0,0 +1,105 @@
+package io.hbar.test.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import io.hbar.fx.backtest.BacktestJob;
+import io.hbar.fx.backtest.BacktestResult;
+import io.hbar.fx.backtest.BacktestRunner;
+import io.hbar.fx.data.CandleStore;
+import io.hbar.fx.data.SimulationDataManager;
+import io.hbar.fx.data.series.FieldSeries;
+import io.hbar.fx.data.series.types.StrategyStats;
+import io.hbar.fx.data.store.TradeStore;
+import io.hbar.fx.strategy.SarStrategy;
+import io.hbar.fx.strategy.Strategy;
+import io.hbar.fx.strategy.TestStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.vertx.java.core.json.JsonObject;
+
+/* a vectorized run has to give the replay's statistics row for row */
+public class VectorizedStrategyTest {
+	final static int START_TIME = 1400000000;
+
+	@Test
+	public void testTestStrategyMatchesReplay() {
+		TradeStore trades = new RandomTradeStore(42, START_TIME, 100000);
+
+		List<BacktestJob> jobs = new ArrayList<BacktestJob>();
+		for (double buyThreshold : new double[] { 0.005, 0.01, 0.02, 0.03 }) {
+			for (double stopLoss : new double[] { 0.0025, 0.005, 0.01 }) {
+				JsonObject parameters = new JsonObject().putNumber("buyThreshold", buyThreshold).putNumber("stopLoss", stopLoss);
+				jobs.add(new BacktestJob(TestStrategy.class.getName(), parameters));
+			}
+		}
+
+		/* starts on a partial candle after a week of warm up */
+		BacktestRunner runner = new BacktestRunner(trades, START_TIME, START_TIME + 7 * 24 * 3600 + 1234, 1);
+
+		List<BacktestResult> replayed = runner.run(jobs);
+		runner.setVectorized(true);
+		List<BacktestResult> vectorized = runner.run(jobs);
+
+		int fills = 0;
+
+		for (int i = 0; i < jobs.size(); i++) {
+			assertFalse(vectorized.get(i).toString(), vectorized.get(i).isFailed());
+			assertStatsEqual(jobs.get(i).toString(), replayed.get(i).getStats(), vectorized.get(i).getStats());
+
+			fills += replayed.get(i).getStats().size();
+		}
+
+		assertTrue("no fills to compare", fills > 0);
+	}
+
+	@Test
+	public void testEmptyWindow() {
+		TradeStore trades = new RandomTradeStore(7, START_TIME, 1000);
+
+		/* every trade is warm up */
+		BacktestRunner runner = new BacktestRunner(trades, START_TIME, Integer.MAX_VALUE - 1, 1);
+		runner.setVectorized(true);
+
+		BacktestResult result = runner.runJob(new BacktestJob(TestStrategy.class.getName(), new JsonObject()));
+
+		assertFalse(result.toString(), result.isFailed());
+		assertEquals(0, result.getStats().size());
+	}
+
+	@Test
+	public void testRejectsGroupsThatCannotBeVectorized() {
+		TradeStore trades = new RandomTradeStore(42, START_TIME, 100000);
+		CandleStore candles = new CandleStore(trades, START_TIME, Integer.MAX_VALUE);
+
+		Strategy vectorized = new TestStrategy();
+		SimulationDataManager dataManager = new SimulationDataManager(candles, Arrays.<Strategy> asList(vectorized, new SarStrategy()));
+
+		try {
+			dataManager.evaluate(trades.ceilingIndex(START_TIME + 7 * 24 * 3600));
+			fail("evaluated a group with a SarStrategy");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(SarStrategy.class.getName()));
+		}
+
+		/* nothing was evaluated */
+		assertEquals(0, vectorized.getSeries().size());
+	}
+
+	private static void assertStatsEqual(String message, FieldSeries<StrategyStats> expected, FieldSeries<StrategyStats> actual) {
+		assertEquals(message + " rows", expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(message + " timestamp of row " + i, expected.getTimestampAt(i), actual.getTimestampAt(i));
+
+			for (StrategyStats field : StrategyStats.values()) {
+				assertEquals(message + " " + field + " of row " + i, expected.getValueAt(i, field), actual.getValueAt(i, field), 0);
+			}
+		}
+	}
+}
@@ -75,6 +75,22 @@ ChartStack.prototype.refreshLastTick = function()
 	}
 };
 
+ChartStack.prototype.subscribe = function()
+{
+	for(var i = 0; i < this.charts.length; i++)
+	{
+		this.charts[i].subscribe();
+	}
+};
+
+ChartStack.prototype.unsubscribe = function()
+{
+	for(var i = 0; i < this.charts.length; i++)
+	{
+		this.charts[i].unsubscribe();
+	}
+};
+
 ChartStack.prototype.render = function() 
 {
 	this.renderer.render(this.stage);
@@ -104,6 +104,22 @@ ChartStackManager.prototype.refreshLastTick = function()
 	}
 };
 
+ChartStackManager.prototype.subscribe = function()
+{
+	for(var stack in this.stacks)
+	{
+		this.stacks[stack].subscribe();
+	}
+};
+
+ChartStackManager.prototype.unsubscribe = function()
+{
+	for(var stack in this.stacks)
+	{
+		this.stacks[stack].unsubscribe();
+	}
+};
+
 ChartStackManager.prototype.scroll = function(scrollX, scrollY)
 {
 	this.timeAxis.scroll(scrollX, scrollY);
@@ -26,6 +26,8 @@ function HBAR(container, onReady)
 		"HilbertTrendline" : ProtoBuf.loadProtoFile("./resources/protobuf/HilbertTrendlineSeries.proto").build("HilbertTrendlineSeries"),
 		"HilbertTrendMode" : ProtoBuf.loadProtoFile("./resources/protobuf/HilbertTrendModeSeries.proto").build("HilbertTrendModeSeries"),
 		"SarStrategy" : ProtoBuf.loadProtoFile("./resources/protobuf/StrategyStatsSeries.proto").build("StrategyStatsSeries"),
+		"Orders" : ProtoBuf.loadProtoFile("./resources/protobuf/OrderSeries.proto").build("OrderSeries"),
+		"TaFunction" : ProtoBuf.loadProtoFile("./resources/protobuf/TaFunctionSeries.proto").build("TaFunctionSeries"),
 	};
 
 	var host = config.hosts.vertx[config.env];
@@ -91,6 +93,8 @@ function HBAR(container, onReady)
 HBAR.prototype.addChart = function(stack, chart) 
 {
 	this.chartStackManager.addChart(stack, chart);
+
+	if(this.live) chart.subscribe();
 };
 
 HBAR.prototype.setStackSizeRatios = function(ratios) {
@@ -99,7 +103,11 @@ HBAR.prototype.setStackSizeRatios = function(ratios) {
 
 HBAR.prototype.setPeriod = function(period)
 {
+	if(this.live) this.chartStackManager.unsubscribe();
+
 	this.chartStackManager.setPeriod(period);
+
+	if(this.live) this.chartStackManager.subscribe();
 };
 
 HBAR.prototype.getPeriod = function()
@@ -129,9 +137,25 @@ HBAR.prototype.stopSimulation = function()
 	clearTimeout(this.intervalId);
 };
 
+// server pushed updates instead of polling
+HBAR.prototype.startLive = function()
+{
+	this.live = true;
+	this.chartStackManager.subscribe();
+};
+
+HBAR.prototype.stopLive = function()
+{
+	this.live = false;
+	this.chartStackManager.unsubscribe();
+};
+
+// one candle of the chart period per tick at 10X
 HBAR.prototype.tick = function()
 {
-	this.protoSock.tick(this.speed, function() {
+	var request = { candles : Math.max(1, Math.round(this.speed / 10)), period : this.getPeriod() };
+
+	this.protoSock.advance(request, function() {
 		this.chartStackManager.refreshLastTick();
 	}.bind(this));
 };
@@ -48,6 +48,16 @@ BaseChart.prototype.refreshLastTick = function()
 };
 
 
+BaseChart.prototype.subscribe = function() 
+{ 
+	this.dataSource.subscribe(this.getRequest(), this.redraw.bind(this));
+};
+
+BaseChart.prototype.unsubscribe = function() 
+{ 
+	this.dataSource.unsubscribe(this.getRequest());
+};
+
 BaseChart.prototype.setRedraw = function(redraw) {
 	this.redraw = redraw;
 };
@@ -8,6 +8,10 @@ function ProtoSock(url, builders, onReady)
 
 	this.cache = {};
 
+	this.chunkRows = 1000;
+
+	this.subscriptions = {};
+
 	this.eventBus = new vertx.EventBus(url);
 
 	this.eventBus.onopen = function() {
@@ -39,7 +43,7 @@ ProtoSock.prototype.getData = function(request, cb)
 		seriesData.min = Math.min(seriesData.min, request.startTime);
 		seriesData.max = Math.max(seriesData.max, request.endTime);
 
-		this.sendDataRequest(request, seriesData, cb);
+		this.sendDataStreamRequest(request, seriesData, cb);
 	}
 
 	return seriesData.data;
@@ -53,6 +57,15 @@ ProtoSock.prototype.tick = function(steps, cb)
 	}.bind(this));
 };
 
+// request is { time : timestamp } or { candles : count, period : seconds }, replayed in one batch
+ProtoSock.prototype.advance = function(request, cb)
+{
+	this.eventBus.send('tick', request, function(data)
+	{
+		if(cb) cb();
+	}.bind(this));
+};
+
 ProtoSock.prototype.refreshLastTick = function(request, cb)
 {
 	var seriesData = this.getSeriesData(request.symbol, request.indicator, request.period, this.hashCode(request.options));
@@ -74,19 +87,99 @@ ProtoSock.prototype.sendDataRequest = function(request, seriesData, cb)
 {
 	this.eventBus.send('data', request, function(data64)
 		{
-			var data = this.builders[request.indicator].decode64(data64.replace(/\n/gm, "")).series;
+			this.addSeriesData(request, seriesData, data64);
+
+			if(cb) cb();
+		}.bind(this));
+};
+
+// newest chunks first so the visible end of the chart renders before the history, cb runs per chunk
+ProtoSock.prototype.sendDataStreamRequest = function(request, seriesData, cb)
+{
+	request.chunkRows = this.chunkRows;
+	request.order = "newest";
 
-			for(var i = 0; i < data.length; i++)
+	var onChunk = function(chunk, reply)
+	{
+		this.addSeriesData(request, seriesData, chunk.data);
+
+		if(cb) cb();
+
+		if(!chunk.last) reply({}, onChunk);
+	}.bind(this);
+
+	this.eventBus.send('dataStream', request, onChunk);
+};
+
+ProtoSock.prototype.addSeriesData = function(request, seriesData, data64)
+{
+	var builder = this.builders[request.indicator] || this.builders["TaFunction"];
+	var data = builder.decode64(data64.replace(/\n/gm, "")).series;
+
+	for(var i = 0; i < data.length; i++)
+	{
+		seriesData.data[data[i].timestamp] = data[i];
+		seriesData.min = Math.min(seriesData.min, data[i].timestamp);
+		seriesData.max = Math.max(seriesData.max, data[i].timestamp);
+	}
+};
+
+// cb runs whenever the server pushes changed rows of the series, the lease is renewed until unsubscribe
+ProtoSock.prototype.subscribe = function(request, cb)
+{
+	var key = this.subscriptionKey(request);
+	if(this.subscriptions[key]) return;
+
+	var seriesData = this.getSeriesData(request.symbol, request.indicator, request.period, this.hashCode(request.options));
+	var subscription = { request : request };
+
+	subscription.handler = function(update)
+	{
+		this.addSeriesData(request, seriesData, update.data);
+
+		if(cb) cb();
+	}.bind(this);
+
+	this.subscriptions[key] = subscription;
+
+	this.sendSubscribeRequest(subscription);
+};
+
+ProtoSock.prototype.sendSubscribeRequest = function(subscription)
+{
+	var request = subscription.request;
+
+	this.eventBus.send('subscribe', { symbol : request.symbol, indicator : request.indicator, period : request.period, options : request.options }, function(reply)
+		{
+			if(this.subscriptions[this.subscriptionKey(request)] != subscription) return;
+
+			if(!subscription.address)
 			{
-				seriesData.data[data[i].timestamp] = data[i];
-				seriesData.min = Math.min(seriesData.min, data[i].timestamp);
-				seriesData.max = Math.max(seriesData.max, data[i].timestamp);
+				subscription.address = reply.address;
+				this.eventBus.registerHandler(subscription.address, subscription.handler);
 			}
 
-			if(cb) cb();
+			subscription.timeoutId = setTimeout(this.sendSubscribeRequest.bind(this, subscription), reply.lease / 2);
 		}.bind(this));
 };
 
+ProtoSock.prototype.unsubscribe = function(request)
+{
+	var key = this.subscriptionKey(request);
+	var subscription = this.subscriptions[key];
+	if(!subscription) return;
+
+	clearTimeout(subscription.timeoutId);
+	if(subscription.address) this.eventBus.unregisterHandler(subscription.address, subscription.handler);
+
+	delete this.subscriptions[key];
+};
+
+ProtoSock.prototype.subscriptionKey = function(request)
+{
+	return request.symbol + "/" + request.indicator + "/" + request.period + "/" + this.hashCode(request.options);
+};
+
 ProtoSock.prototype.sendMaxTimeRequest = function(cb) {
 	this.eventBus.send('maxTime', {}, function(data)
 		{
@@ -94,6 +187,13 @@ ProtoSock.prototype.sendMaxTimeRequest = function(cb) {
 		}.bind(this));
 };
 
+ProtoSock.prototype.sendIndicatorsRequest = function(cb) {
+	this.eventBus.send('indicators', {}, function(data)
+		{
+			if(cb) cb(data);
+		}.bind(this));
+};
+
 ProtoSock.prototype.getMin = function(request, fields)
 {
 	var seriesData = this.getSeriesData(request.symbol, request.indicator, request.period, this.hashCode(request.options)).data;